@@ -0,0 +1,71 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link Convolution} implementation over a grid of signal and kernel lengths. Inputs come from a fixed
+ * seed so runs on the same machine are comparable. Adapters that cache kernel spectra are measured warm, which is
+ * how they behave when a kernel is applied repeatedly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--enable-preview", "--add-modules=jdk.incubator.vector"})
+public class ConvolutionBenchmark {
+
+    @Param({"apache", "timeDomain", "frequencyDomain", "overlapSave", "vectorApi",
+            "uniformPartitioned", "nonUniformPartitioned", "parallelOverlapSave"})
+    public String implementation;
+
+    @Param({"1024", "48000"})
+    public int signalLength;
+
+    @Param({"3", "128", "4096"})
+    public int kernelLength;
+
+    private Convolution convolution;
+    private double[] signal;
+    private double[] kernel;
+
+    @Setup
+    public void setUp() {
+        convolution = create(implementation);
+        Random random = new Random(42);
+        signal = TestSignals.random(signalLength, random);
+        kernel = TestSignals.random(kernelLength, random);
+    }
+
+    @Benchmark
+    public double[] convolve() {
+        return convolution.with(signal, kernel);
+    }
+
+    static Convolution create(String implementation) {
+        return switch (implementation) {
+            case "apache" -> new ApacheAdapter();
+            case "timeDomain" -> new TimeDomainAdapter();
+            case "frequencyDomain" -> new FrequencyDomainAdapter();
+            case "overlapSave" -> new OverlapSaveAdapter();
+            case "vectorApi" -> new VectorApiAdapter();
+            case "uniformPartitioned" -> new UniformPartitionedAdapter();
+            case "nonUniformPartitioned" -> new NonUniformPartitionedAdapter();
+            case "parallelOverlapSave" -> new ParallelOverlapSaveAdapter();
+            default -> throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package dev.nathanlively.overlap_save_demo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Direct-form engines at the kernel sizes of {@code VectorApiPerformanceTest}. {@code maskedReduction} is the
+ * previous {@link VectorApiAdapter} loop, one masked dot product and horizontal add per output sample, kept here
+ * as a baseline for the register-blocked engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--enable-preview", "--add-modules=jdk.incubator.vector"})
+public class DirectConvolutionBenchmark {
+    private static final VectorSpecies<Double> SPECIES = VectorApiAdapter.SPECIES;
+
+    @Param({"4096"})
+    public int signalLength;
+
+    @Param({"8", "16", "32", "64", "128"})
+    public int kernelLength;
+
+    private double[] signal;
+    private double[] kernel;
+    private final VectorApiAdapter vectorApi = new VectorApiAdapter();
+    private final TimeDomainAdapter timeDomain = new TimeDomainAdapter();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        signal = TestSignals.random(signalLength, random);
+        kernel = TestSignals.random(kernelLength, random);
+    }
+
+    @Benchmark
+    public double[] registerBlocked() {
+        return vectorApi.with(signal, kernel);
+    }
+
+    @Benchmark
+    public double[] timeDomain() {
+        return timeDomain.with(signal, kernel);
+    }
+
+    @Benchmark
+    public double[] maskedReduction() {
+        double[] paddedSignal = SignalTransformer.padSymmetric(signal, kernelLength - 1);
+        double[] reversedKernel = vectorApi.reverseKernel(kernel);
+        int resultLength = signalLength + kernelLength - 1;
+        double[] result = new double[resultLength];
+        int vectorLength = SPECIES.length();
+
+        for (int outputPos = 0; outputPos < resultLength; outputPos++) {
+            double sum = 0.0;
+            for (int i = 0; i < kernelLength; i += vectorLength) {
+                VectorMask<Double> mask = SPECIES.indexInRange(0, Math.min(vectorLength, kernelLength - i));
+                DoubleVector signalVec = DoubleVector.fromArray(SPECIES, paddedSignal, outputPos + i, mask);
+                DoubleVector kernelVec = DoubleVector.fromArray(SPECIES, reversedKernel, i, mask);
+                sum += signalVec.mul(kernelVec, mask).reduceLanes(VectorOperators.ADD, mask);
+            }
+            result[outputPos] = sum;
+        }
+        return result;
+    }
+}
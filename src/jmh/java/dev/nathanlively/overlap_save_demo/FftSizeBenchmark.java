@@ -0,0 +1,76 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block-based engines with the FFT size pinned instead of chosen by the adapter, to see where each size pays
+ * off. Uniformly partitioned convolution runs blocks of half the FFT size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--enable-preview", "--add-modules=jdk.incubator.vector"})
+public class FftSizeBenchmark {
+
+    @Param({"preparedKernel", "streaming", "uniformPartitioned"})
+    public String engine;
+
+    @Param({"48000", "480000"})
+    public int signalLength;
+
+    @Param({"128", "1024"})
+    public int kernelLength;
+
+    @Param({"2048", "8192", "32768"})
+    public int fftSize;
+
+    private double[] signal;
+    private double[] kernel;
+    private double[] output;
+    private PreparedKernel preparedKernel;
+    private StreamingConvolver streamingConvolver;
+    private UniformPartitionedConvolver partitionedConvolver;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        signal = TestSignals.random(signalLength, random);
+        kernel = TestSignals.random(kernelLength, random);
+        output = new double[signalLength];
+
+        switch (engine) {
+            case "preparedKernel" -> preparedKernel = Convolution.prepare(kernel, fftSize);
+            case "streaming" -> streamingConvolver = new StreamingConvolver(kernel, fftSize);
+            case "uniformPartitioned" -> partitionedConvolver = new UniformPartitionedConvolver(kernel, fftSize / 2);
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    @Benchmark
+    public double[] convolve() {
+        if (preparedKernel != null) {
+            return preparedKernel.with(signal);
+        }
+        if (streamingConvolver != null) {
+            streamingConvolver.process(signal, output);
+        } else if (partitionedConvolver != null) {
+            partitionedConvolver.process(signal, output);
+        }
+        return output;
+    }
+}
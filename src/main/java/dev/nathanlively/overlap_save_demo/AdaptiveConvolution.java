@@ -0,0 +1,47 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Dispatches each call to the engine the {@link ConvolutionCostModel} predicts to be fastest for its signal and
+ * kernel length. The no-argument constructor calibrates the model on first use and reuses the stored result on
+ * later startups.
+ */
+public class AdaptiveConvolution implements Convolution {
+    private final ConvolutionCostModel costModel;
+
+    public AdaptiveConvolution() {
+        this(ConvolutionCostModel.DEFAULT_CALIBRATION_FILE);
+    }
+
+    public AdaptiveConvolution(Path calibrationFile) {
+        this(ConvolutionCostModel.loadOrCalibrate(calibrationFile));
+    }
+
+    public AdaptiveConvolution(ConvolutionCostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel, "costModel cannot be null");
+    }
+
+    @Override
+    public double[] with(double[] signal, double[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+
+        return select(signal.length, kernel.length).convolution().with(signal, kernel);
+    }
+
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        select(signal.length, kernel.length).convolution().with(signal, kernel, output, outputOffset);
+    }
+
+    public ConvolutionCostModel.Engine select(int signalLength, int kernelLength) {
+        return costModel.fastest(signalLength, kernelLength);
+    }
+
+    public ConvolutionCostModel costModel() {
+        return costModel;
+    }
+}
@@ -1,5 +1,46 @@
 package dev.nathanlively.overlap_save_demo;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
 public interface Convolution {
     double[] with(double[] signal, double[] kernel);
+
+    /**
+     * Writes the {@code signal.length + kernel.length - 1} samples of the result into {@code output} from
+     * {@code outputOffset}, so callers can reuse one buffer or write into part of a larger one. Implementations
+     * that can write the result in place override this; the default copies the result of
+     * {@link #with(double[], double[])}.
+     */
+    default void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        SignalTransformer.validate(signal, kernel, output, outputOffset);
+        double[] result = with(signal, kernel);
+        System.arraycopy(result, 0, output, outputOffset, result.length);
+    }
+
+    /**
+     * Convolves every signal with the same kernel and returns the results in the same order. Implementations
+     * that can share the kernel transform across signals override this; the default calls
+     * {@link #with(double[], double[])} once per signal.
+     */
+    default List<double[]> withAll(List<double[]> signals, double[] kernel) {
+        Objects.requireNonNull(signals, "signals cannot be null");
+        List<double[]> results = new ArrayList<>(signals.size());
+        for (double[] signal : signals) {
+            results.add(with(signal, kernel));
+        }
+        return results;
+    }
+
+    /**
+     * Transforms the kernel once so it can be convolved with many signals without repeating the work.
+     */
+    static PreparedKernel prepare(double[] kernel) {
+        return PreparedKernel.of(kernel);
+    }
+
+    static PreparedKernel prepare(double[] kernel, int fftSize) {
+        return PreparedKernel.of(kernel, fftSize);
+    }
 }
@@ -0,0 +1,268 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Predicts how long each {@link Engine} takes for a given signal and kernel length. Each engine counts its
+ * operations analytically, and the model scales the count by a per-engine cost in nanoseconds. The default costs
+ * are rough figures for a modern desktop CPU; {@link #calibrate()} measures them on the host instead, and
+ * {@link #loadOrCalibrate(Path)} keeps the measurement in a properties file so it only runs once per machine.
+ */
+public final class ConvolutionCostModel {
+
+    public enum Engine {
+        DIRECT(new VectorApiAdapter(), 4096, 64) {
+            @Override
+            double operations(int signalLength, int kernelLength) {
+                return (double) signalLength * kernelLength + signalLength + kernelLength;
+            }
+        },
+        FREQUENCY_DOMAIN(new FrequencyDomainAdapter(), 65536, 512) {
+            @Override
+            double operations(int signalLength, int kernelLength) {
+                int paddedLength = FrequencyDomainAdapter.paddedLength(signalLength + kernelLength - 1);
+                // Forward and inverse transform of the signal; the kernel spectrum is cached
+                return 2 * fftOperations(paddedLength) + paddedLength;
+            }
+        },
+        OVERLAP_SAVE(new OverlapSaveAdapter(), 65536, 512) {
+            @Override
+            double operations(int signalLength, int kernelLength) {
+                int fftSize = ((OverlapSaveAdapter) convolution()).calculateOptimalFftSize(signalLength, kernelLength);
+                int blockCount = OverlapSaveAdapter.blockCount(signalLength + kernelLength - 1,
+                        fftSize - kernelLength + 1);
+                return blockCount * (2 * fftOperations(fftSize) + fftSize);
+            }
+        },
+        PARALLEL_OVERLAP_SAVE(new ParallelOverlapSaveAdapter(), 262144, 512) {
+            @Override
+            double operations(int signalLength, int kernelLength) {
+                ParallelOverlapSaveAdapter adapter = (ParallelOverlapSaveAdapter) convolution();
+                int fftSize = adapter.calculateOptimalFftSize(signalLength, kernelLength);
+                int blockCount = OverlapSaveAdapter.blockCount(signalLength + kernelLength - 1,
+                        fftSize - kernelLength + 1);
+                // The same work as overlap-save, shared by the workers that the blocks can keep busy
+                return blockCount * (2 * fftOperations(fftSize) + fftSize) / adapter.parallelism(blockCount);
+            }
+        },
+        UNIFORM_PARTITIONED(new UniformPartitionedAdapter(), 65536, 8192) {
+            @Override
+            double operations(int signalLength, int kernelLength) {
+                int blockSize = ((UniformPartitionedAdapter) convolution()).blockSize();
+                int fftSize = 2 * blockSize;
+                int partitionCount = Math.ceilDiv(kernelLength, blockSize);
+                // The result plus one block of flushed silence; each block multiply-accumulates every partition
+                int blockCount = Math.ceilDiv(signalLength + kernelLength - 1 + blockSize, blockSize);
+                return (double) blockCount * (2 * fftOperations(fftSize) + (double) partitionCount * fftSize);
+            }
+        };
+
+        private final Convolution convolution;
+        private final int calibrationSignalLength;
+        private final int calibrationKernelLength;
+
+        Engine(Convolution convolution, int calibrationSignalLength, int calibrationKernelLength) {
+            this.convolution = convolution;
+            this.calibrationSignalLength = calibrationSignalLength;
+            this.calibrationKernelLength = calibrationKernelLength;
+        }
+
+        public Convolution convolution() {
+            return convolution;
+        }
+
+        abstract double operations(int signalLength, int kernelLength);
+
+        private static double fftOperations(int size) {
+            return size * (31 - Integer.numberOfLeadingZeros(size));
+        }
+    }
+
+    static final Path DEFAULT_CALIBRATION_FILE =
+            Path.of(System.getProperty("user.home"), ".overlap-save-demo", "convolution-calibration.properties");
+
+    /**
+     * Stored calibrations are only trusted for the same version. Bump it whenever an engine's implementation or
+     * its {@code operations} formula changes.
+     */
+    static final int VERSION = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(ConvolutionCostModel.class);
+
+    private static final String HOST_KEY = "host";
+    private static final String COST_SUFFIX = ".nanosPerOperation";
+    private static final int CALIBRATION_RUNS = 7;
+    private static final long WARMUP_NANOS = 200_000_000;
+
+    private final Map<Engine, Double> nanosPerOperation;
+
+    private ConvolutionCostModel(Map<Engine, Double> nanosPerOperation) {
+        this.nanosPerOperation = new EnumMap<>(nanosPerOperation);
+    }
+
+    public static ConvolutionCostModel defaults() {
+        Map<Engine, Double> costs = new EnumMap<>(Engine.class);
+        costs.put(Engine.DIRECT, 0.25);
+        costs.put(Engine.FREQUENCY_DOMAIN, 1.5);
+        costs.put(Engine.OVERLAP_SAVE, 1.0);
+        costs.put(Engine.PARALLEL_OVERLAP_SAVE, 1.25);
+        costs.put(Engine.UNIFORM_PARTITIONED, 1.0);
+        return new ConvolutionCostModel(costs);
+    }
+
+    public static ConvolutionCostModel of(Map<Engine, Double> nanosPerOperation) {
+        Objects.requireNonNull(nanosPerOperation, "nanosPerOperation cannot be null");
+        for (Engine engine : Engine.values()) {
+            Double cost = nanosPerOperation.get(engine);
+            if (cost == null || !(cost > 0)) {
+                throw new IllegalArgumentException("Cost for " + engine + " must be positive");
+            }
+        }
+        return new ConvolutionCostModel(nanosPerOperation);
+    }
+
+    /**
+     * Times every engine on its own reference shape and divides by the predicted operation count. Each engine runs
+     * for {@value #WARMUP_NANOS} ns first so the timed runs see compiled code. Takes one to two seconds.
+     */
+    public static ConvolutionCostModel calibrate() {
+        Random random = new Random(1);
+        Map<Engine, Double> costs = new EnumMap<>(Engine.class);
+        for (Engine engine : Engine.values()) {
+            double[] signal = random.doubles(engine.calibrationSignalLength, -1, 1).toArray();
+            double[] kernel = random.doubles(engine.calibrationKernelLength, -1, 1).toArray();
+
+            long[] timings = new long[CALIBRATION_RUNS];
+            long warmupStart = System.nanoTime();
+            do {
+                engine.convolution.with(signal, kernel);
+            } while (System.nanoTime() - warmupStart < WARMUP_NANOS);
+            for (int run = 0; run < CALIBRATION_RUNS; run++) {
+                long start = System.nanoTime();
+                engine.convolution.with(signal, kernel);
+                timings[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(timings);
+
+            double median = Math.max(1, timings[CALIBRATION_RUNS / 2]);
+            costs.put(engine, median / engine.operations(signal.length, kernel.length));
+        }
+        return new ConvolutionCostModel(costs);
+    }
+
+    /**
+     * Loads the calibration stored at {@code file}, or calibrates and stores it when the file is missing,
+     * unreadable, or was written on a different host or by a different {@link #VERSION} of the engines.
+     */
+    public static ConvolutionCostModel loadOrCalibrate(Path file) {
+        Objects.requireNonNull(file, "file cannot be null");
+        ConvolutionCostModel stored = load(file);
+        if (stored != null) {
+            return stored;
+        }
+
+        ConvolutionCostModel calibrated = calibrate();
+        try {
+            calibrated.store(file);
+        } catch (RuntimeException e) {
+            // The calibration still applies to this process; the next startup will try again
+            log.warn("Could not store convolution calibration at {}", file, e);
+        }
+        return calibrated;
+    }
+
+    static ConvolutionCostModel load(Path file) {
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!hostFingerprint().equals(properties.getProperty(HOST_KEY))) {
+            return null;
+        }
+
+        Map<Engine, Double> costs = new EnumMap<>(Engine.class);
+        for (Engine engine : Engine.values()) {
+            String value = properties.getProperty(engine.name() + COST_SUFFIX);
+            try {
+                double cost = value == null ? Double.NaN : Double.parseDouble(value);
+                if (!(cost > 0)) {
+                    return null;
+                }
+                costs.put(engine, cost);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return new ConvolutionCostModel(costs);
+    }
+
+    public void store(Path file) {
+        Objects.requireNonNull(file, "file cannot be null");
+        Properties properties = new Properties();
+        properties.setProperty(HOST_KEY, hostFingerprint());
+        nanosPerOperation.forEach((engine, cost) ->
+                properties.setProperty(engine.name() + COST_SUFFIX, Double.toString(cost)));
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, "Convolution cost model calibration");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save calibration: " + file, e);
+        }
+    }
+
+    public double estimatedNanos(Engine engine, int signalLength, int kernelLength) {
+        return nanosPerOperation.get(engine) * engine.operations(signalLength, kernelLength);
+    }
+
+    public Engine fastest(int signalLength, int kernelLength) {
+        Engine best = Engine.DIRECT;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (Engine engine : Engine.values()) {
+            double cost = estimatedNanos(engine, signalLength, kernelLength);
+            if (cost < bestCost) {
+                best = engine;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    public double nanosPerOperation(Engine engine) {
+        return nanosPerOperation.get(engine);
+    }
+
+    // A calibration only transfers between runs of the same engines on the same CPU and JVM
+    static String hostFingerprint() {
+        return String.join("/",
+                "v" + VERSION,
+                System.getProperty("os.arch", ""),
+                Integer.toString(Runtime.getRuntime().availableProcessors()),
+                System.getProperty("java.vm.name", ""),
+                System.getProperty("java.vm.version", ""));
+    }
+}
@@ -0,0 +1,39 @@
+package dev.nathanlively.overlap_save_demo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Wraps every {@link Convolution} bean in a {@link MeteredConvolution} reporting to the application's
+ * {@link MeterRegistry}. Inject engines through the {@code Convolution} interface, since the bean becomes the
+ * decorator. Set {@code convolution.metrics.enabled=false} to turn it off.
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "convolution.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConvolutionMetricsAutoConfiguration {
+
+    // Static so the post-processor is registered without instantiating this class early
+    @Bean
+    static BeanPostProcessor meteredConvolutionPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof Convolution convolution && !(bean instanceof MeteredConvolution)) {
+                    MeterRegistry meterRegistry = registry.getIfAvailable();
+                    if (meterRegistry != null) {
+                        return new MeteredConvolution(convolution, meterRegistry);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
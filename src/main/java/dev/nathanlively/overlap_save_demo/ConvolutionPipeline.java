@@ -0,0 +1,204 @@
+package dev.nathanlively.overlap_save_demo;
+
+import dev.nathanlively.overlap_save_demo.StreamingWavWriter.SampleFormat;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Convolves a WAV file into another WAV file with decode, convolve and encode running as concurrent stages.
+ * Blocks circulate through a fixed pool of buffers and bounded queues, so a slow stage stalls the others
+ * instead of letting memory grow, and peak memory depends on the block size and queue capacity but not on the
+ * file length. Every channel is convolved with the same kernel, and each output channel is
+ * {@code signalLength + kernelLength - 1} frames long, like {@link Convolution#with(double[], double[])}.
+ */
+public final class ConvolutionPipeline {
+    public static final int DEFAULT_BLOCK_FRAMES = 8192;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    // Marks the end of the stream in both queues
+    private static final Block END = new Block(0, 0);
+
+    private final double[] kernel;
+    private final int blockFrames;
+    private final int queueCapacity;
+
+    public ConvolutionPipeline(double[] kernel) {
+        this(kernel, DEFAULT_BLOCK_FRAMES, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity blocks that may wait between two stages before the upstream stage blocks
+     */
+    public ConvolutionPipeline(double[] kernel, int blockFrames, int queueCapacity) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+        if (blockFrames < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Block size and queue capacity must be positive");
+        }
+        this.kernel = kernel.clone();
+        this.blockFrames = blockFrames;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Convolves {@code input} into {@code output}, keeping the input's sample format where the writer supports
+     * it. Returns the number of frames written.
+     */
+    public long process(Path input, Path output) {
+        try (MappedWavReader reader = MappedWavReader.open(input)) {
+            return process(reader, output, formatOf(reader));
+        }
+    }
+
+    public long process(Path input, Path output, SampleFormat format) {
+        try (MappedWavReader reader = MappedWavReader.open(input)) {
+            return process(reader, output, format);
+        }
+    }
+
+    private long process(MappedWavReader reader, Path output, SampleFormat format) {
+        Objects.requireNonNull(format, "format cannot be null");
+        int channelCount = reader.channelCount();
+
+        // Enough buffers to fill both queues while each stage holds one
+        int bufferCount = 2 * queueCapacity + 3;
+        BlockingQueue<Block> free = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Block(channelCount, blockFrames));
+        }
+        BlockingQueue<Block> decoded = new ArrayBlockingQueue<>(queueCapacity + 1);
+        BlockingQueue<Block> convolved = new ArrayBlockingQueue<>(queueCapacity + 1);
+
+        try (StreamingWavWriter writer = StreamingWavWriter.create(output, reader.sampleRate(), channelCount, format);
+             ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            ExecutorCompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+            stages.submit(() -> decode(reader, free, decoded));
+            stages.submit(() -> new ConvolveStage(channelCount, reader.frameCount()).run(free, decoded, convolved));
+            stages.submit(() -> encode(writer, convolved, free));
+            try {
+                for (int i = 0; i < 3; i++) {
+                    stages.take().get();
+                }
+            } catch (ExecutionException e) {
+                // Interrupt the stages still blocked on a queue
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new RuntimeException("Convolution pipeline failed: " + output, e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Convolution pipeline interrupted: " + output, e);
+            }
+            return writer.framesWritten();
+        }
+    }
+
+    private Void decode(MappedWavReader reader, BlockingQueue<Block> free, BlockingQueue<Block> decoded)
+            throws InterruptedException {
+        long position = 0;
+        while (position < reader.frameCount()) {
+            Block block = free.take();
+            block.offset = 0;
+            block.length = (int) Math.min(blockFrames, reader.frameCount() - position);
+            for (int c = 0; c < block.channels.length; c++) {
+                reader.read(c, position, block.channels[c], 0, block.length);
+            }
+            position += block.length;
+            decoded.put(block);
+        }
+        decoded.put(END);
+        return null;
+    }
+
+    private static Void encode(StreamingWavWriter writer, BlockingQueue<Block> convolved, BlockingQueue<Block> free)
+            throws InterruptedException {
+        for (Block block = convolved.take(); block != END; block = convolved.take()) {
+            writer.write(block.channels, block.offset, block.length);
+            free.put(block);
+        }
+        return null;
+    }
+
+    private static SampleFormat formatOf(MappedWavReader reader) {
+        if (reader.floatingPoint()) {
+            return SampleFormat.FLOAT_32;
+        }
+        return reader.bitDepth() > 16 ? SampleFormat.PCM_24 : SampleFormat.PCM_16;
+    }
+
+    /**
+     * Runs one {@link StreamingConvolver} per channel in place over each block, drops the convolver's latency
+     * from the front of the output and flushes the kernel tail with zeros once the input ends.
+     */
+    private final class ConvolveStage {
+        private final StreamingConvolver[] convolvers;
+        private long framesToSkip;
+        private long framesToEmit;
+
+        ConvolveStage(int channelCount, long signalFrames) {
+            this.convolvers = new StreamingConvolver[channelCount];
+            for (int c = 0; c < channelCount; c++) {
+                convolvers[c] = new StreamingConvolver(kernel);
+            }
+            this.framesToSkip = convolvers[0].latency();
+            this.framesToEmit = signalFrames == 0 ? 0 : signalFrames + kernel.length - 1;
+        }
+
+        Void run(BlockingQueue<Block> free, BlockingQueue<Block> decoded, BlockingQueue<Block> convolved)
+                throws InterruptedException {
+            for (Block block = decoded.take(); block != END; block = decoded.take()) {
+                convolve(block);
+                convolved.put(block);
+            }
+            while (framesToEmit > 0) {
+                Block block = free.take();
+                block.offset = 0;
+                block.length = (int) Math.min(blockFrames, framesToSkip + framesToEmit);
+                for (double[] channel : block.channels) {
+                    Arrays.fill(channel, 0, block.length, 0.0);
+                }
+                convolve(block);
+                convolved.put(block);
+            }
+            convolved.put(END);
+            return null;
+        }
+
+        private void convolve(Block block) {
+            for (int c = 0; c < convolvers.length; c++) {
+                convolvers[c].process(block.channels[c], 0, block.length, block.channels[c]);
+            }
+            int skipped = (int) Math.min(framesToSkip, block.length);
+            framesToSkip -= skipped;
+            block.offset = skipped;
+            block.length = (int) Math.min(block.length - skipped, framesToEmit);
+            framesToEmit -= block.length;
+        }
+    }
+
+    /**
+     * A pooled buffer; only {@code [offset, offset + length)} of each channel is valid.
+     */
+    private static final class Block {
+        final double[][] channels;
+        int offset;
+        int length;
+
+        Block(int channelCount, int frames) {
+            this.channels = new double[channelCount][frames];
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-place radix-2 FFT on split real/imaginary {@code double[]} arrays. Twiddle factors and the bit-reversal
+ * permutation are computed once per size, so transforms on caller-owned buffers allocate nothing.
+ * Instances are immutable and safe to share between threads.
+ * <p>
+ * When {@link SimdKernels#ENABLED}, the passes wide enough to fill a vector run as fused radix-4 (or a final
+ * radix-2) {@link SimdKernels} sweeps over per-pass twiddle tables laid out contiguously.
+ */
+public final class FftEngine implements InterleavedFft {
+
+    private static final Map<Integer, FftEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int[] bitReversal;
+    private final double[] cosTable;
+    private final double[] sinTable;
+
+    // Per-pass twiddles for the vectorized passes, empty when they are disabled. The pass for butterflies of
+    // half points starts at half-1 in the split tables and at 2*(half-1) in the interleaved ones.
+    private final boolean vectorized;
+    private final double[] passCos;
+    private final double[] passSin;
+    private final double[] interleavedCos;
+    private final double[] interleavedSin;
+
+    FftEngine(int size, boolean vectorized) {
+        this.size = size;
+        this.bitReversal = computeBitReversal(size);
+        this.cosTable = new double[size / 2];
+        this.sinTable = new double[size / 2];
+        computeTwiddles(size, cosTable, sinTable);
+
+        this.vectorized = vectorized;
+        int tableLength = vectorized ? size : 0;
+        this.passCos = new double[tableLength];
+        this.passSin = new double[tableLength];
+        this.interleavedCos = new double[2 * tableLength];
+        this.interleavedSin = new double[2 * tableLength];
+        if (vectorized) {
+            computePassTwiddles();
+        }
+    }
+
+    public static FftEngine forSize(int size) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, n -> new FftEngine(n, SimdKernels.ENABLED));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public void forward(double[] real, double[] imaginary) {
+        transform(real, imaginary, -1.0);
+    }
+
+    /**
+     * Inverse transform, scaled by {@code 1/size} so that {@code inverse(forward(x)) == x}.
+     */
+    public void inverse(double[] real, double[] imaginary) {
+        transform(real, imaginary, 1.0);
+
+        double scale = 1.0 / size;
+        for (int i = 0; i < size; i++) {
+            real[i] *= scale;
+            imaginary[i] *= scale;
+        }
+    }
+
+    /**
+     * Forward transform of an interleaved {@code [re0, im0, re1, im1, ...]} buffer. Only the first
+     * {@code 2*size} entries are used, so the buffer may carry extra room at the end.
+     */
+    @Override
+    public void forwardInterleaved(double[] data) {
+        transformInterleaved(data, -1.0);
+    }
+
+    @Override
+    public void inverseInterleaved(double[] data) {
+        transformInterleaved(data, 1.0);
+
+        double scale = 1.0 / size;
+        for (int i = 0; i < 2 * size; i++) {
+            data[i] *= scale;
+        }
+    }
+
+    private void transform(double[] real, double[] imaginary, double sign) {
+        checkLength(real.length, size);
+        checkLength(imaginary.length, size);
+
+        for (int i = 0; i < size; i++) {
+            int j = bitReversal[i];
+            if (i < j) {
+                double tempReal = real[i];
+                real[i] = real[j];
+                real[j] = tempReal;
+                double tempImaginary = imaginary[i];
+                imaginary[i] = imaginary[j];
+                imaginary[j] = tempImaginary;
+            }
+        }
+
+        int lanes = SimdKernels.SPECIES.length();
+        int half = 1;
+        while (half < size) {
+            if (vectorized && half >= lanes) {
+                if (4 * half <= size) {
+                    SimdKernels.radix4(real, imaginary, size, half, passCos, passSin, half - 1, 2 * half - 1, sign);
+                    half *= 4;
+                } else {
+                    SimdKernels.radix2(real, imaginary, size, half, passCos, passSin, half - 1, sign);
+                    half *= 2;
+                }
+            } else {
+                butterflyPass(real, imaginary, half, sign);
+                half *= 2;
+            }
+        }
+    }
+
+    private void butterflyPass(double[] real, double[] imaginary, int half, double sign) {
+        int span = 2 * half;
+        int twiddleStride = size / span;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < half; k++) {
+                double cos = cosTable[k * twiddleStride];
+                double sin = sign * sinTable[k * twiddleStride];
+                int top = start + k;
+                int bottom = top + half;
+
+                double productReal = real[bottom] * cos - imaginary[bottom] * sin;
+                double productImaginary = real[bottom] * sin + imaginary[bottom] * cos;
+
+                real[bottom] = real[top] - productReal;
+                imaginary[bottom] = imaginary[top] - productImaginary;
+                real[top] += productReal;
+                imaginary[top] += productImaginary;
+            }
+        }
+    }
+
+    private void transformInterleaved(double[] data, double sign) {
+        if (data.length < 2 * size) {
+            throw new IllegalArgumentException("Buffer length " + data.length + " is shorter than " + 2 * size);
+        }
+
+        for (int i = 0; i < size; i++) {
+            int j = bitReversal[i];
+            if (i < j) {
+                double tempReal = data[2 * i];
+                data[2 * i] = data[2 * j];
+                data[2 * j] = tempReal;
+                double tempImaginary = data[2 * i + 1];
+                data[2 * i + 1] = data[2 * j + 1];
+                data[2 * j + 1] = tempImaginary;
+            }
+        }
+
+        int lanes = SimdKernels.SPECIES.length();
+        int half = 1;
+        while (half < size) {
+            if (vectorized && 2 * half >= lanes) {
+                if (4 * half <= size) {
+                    SimdKernels.radix4Interleaved(data, size, half, interleavedCos, interleavedSin,
+                            2 * (half - 1), 2 * (2 * half - 1), sign);
+                    half *= 4;
+                } else {
+                    SimdKernels.radix2Interleaved(data, size, half, interleavedCos, interleavedSin,
+                            2 * (half - 1), sign);
+                    half *= 2;
+                }
+            } else {
+                butterflyPassInterleaved(data, half, sign);
+                half *= 2;
+            }
+        }
+    }
+
+    private void butterflyPassInterleaved(double[] data, int half, double sign) {
+        int span = 2 * half;
+        int twiddleStride = size / span;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < half; k++) {
+                double cos = cosTable[k * twiddleStride];
+                double sin = sign * sinTable[k * twiddleStride];
+                int top = 2 * (start + k);
+                int bottom = top + 2 * half;
+
+                double productReal = data[bottom] * cos - data[bottom + 1] * sin;
+                double productImaginary = data[bottom] * sin + data[bottom + 1] * cos;
+
+                data[bottom] = data[top] - productReal;
+                data[bottom + 1] = data[top + 1] - productImaginary;
+                data[top] += productReal;
+                data[top + 1] += productImaginary;
+            }
+        }
+    }
+
+    private void computePassTwiddles() {
+        for (int half = 1; half < size; half *= 2) {
+            int twiddleStride = size / (2 * half);
+            for (int k = 0; k < half; k++) {
+                double cos = cosTable[k * twiddleStride];
+                double sin = sinTable[k * twiddleStride];
+                passCos[half - 1 + k] = cos;
+                passSin[half - 1 + k] = sin;
+
+                int pair = 2 * (half - 1 + k);
+                interleavedCos[pair] = cos;
+                interleavedCos[pair + 1] = cos;
+                interleavedSin[pair] = -sin;
+                interleavedSin[pair + 1] = sin;
+            }
+        }
+    }
+
+    private static int[] computeBitReversal(int size) {
+        int bits = Integer.numberOfTrailingZeros(size);
+        int[] table = new int[size];
+        for (int i = 0; i < size; i++) {
+            table[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+        return table;
+    }
+
+    static void computeTwiddles(int size, double[] cosTable, double[] sinTable) {
+        int quarter = size / 4;
+        for (int k = 0; k < size / 2; k++) {
+            // The reflections below need the quarter point to fall on a table entry
+            if (k <= quarter / 2 || quarter == 0 || size % 4 != 0) {
+                cosTable[k] = Math.cos(2.0 * Math.PI * k / size);
+                sinTable[k] = Math.sin(2.0 * Math.PI * k / size);
+            } else if (k <= quarter) {
+                // Reflect about pi/4 so both tables are exact at the quarter point
+                cosTable[k] = Math.sin(2.0 * Math.PI * (quarter - k) / size);
+                sinTable[k] = Math.cos(2.0 * Math.PI * (quarter - k) / size);
+            } else {
+                cosTable[k] = -sinTable[k - quarter];
+                sinTable[k] = cosTable[k - quarter];
+            }
+        }
+    }
+
+    private static void checkLength(int actual, int expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Buffer length " + actual + " does not match FFT size " + expected);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package dev.nathanlively.overlap_save_demo;
+
+/**
+ * Single-precision counterpart of {@link Convolution}. Float samples keep about 24 bits of precision, more than
+ * the 16- and 24-bit PCM this project reads and writes, at half the memory and twice the SIMD lanes.
+ */
+public interface FloatConvolution {
+    float[] with(float[] signal, float[] kernel);
+}
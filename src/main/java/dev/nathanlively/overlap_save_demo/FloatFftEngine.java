@@ -0,0 +1,140 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-precision counterpart of {@link FftEngine} for interleaved {@code [re0, im0, re1, im1, ...]}
+ * {@code float[]} buffers. Twiddles are computed in double precision and rounded once. When
+ * {@link SimdKernels#ENABLED}, passes at least a vector wide use {@link SimdKernels} float kernels, which fit
+ * twice as many lanes as the double ones.
+ */
+public final class FloatFftEngine {
+
+    private static final Map<Integer, FloatFftEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int[] bitReversal;
+    private final float[] cosTable;
+    private final float[] sinTable;
+
+    // Per-pass twiddles stored per complex bin as (cos, cos) and (-sin, sin), starting at 2*(half-1)
+    private final boolean vectorized;
+    private final float[] interleavedCos;
+    private final float[] interleavedSin;
+
+    FloatFftEngine(int size, boolean vectorized) {
+        this.size = size;
+        this.bitReversal = new int[size];
+        int bits = Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < size; i++) {
+            bitReversal[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+
+        double[] cos = new double[size / 2];
+        double[] sin = new double[size / 2];
+        FftEngine.computeTwiddles(size, cos, sin);
+        this.cosTable = toFloat(cos);
+        this.sinTable = toFloat(sin);
+
+        this.vectorized = vectorized;
+        this.interleavedCos = new float[vectorized ? 2 * size : 0];
+        this.interleavedSin = new float[vectorized ? 2 * size : 0];
+        if (vectorized) {
+            for (int half = 1; half < size; half *= 2) {
+                int twiddleStride = size / (2 * half);
+                for (int k = 0; k < half; k++) {
+                    int pair = 2 * (half - 1 + k);
+                    interleavedCos[pair] = cosTable[k * twiddleStride];
+                    interleavedCos[pair + 1] = cosTable[k * twiddleStride];
+                    interleavedSin[pair] = -sinTable[k * twiddleStride];
+                    interleavedSin[pair + 1] = sinTable[k * twiddleStride];
+                }
+            }
+        }
+    }
+
+    public static FloatFftEngine forSize(int size) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, n -> new FloatFftEngine(n, SimdKernels.ENABLED));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forward transform of the first {@code 2*size} entries of an interleaved buffer.
+     */
+    public void forwardInterleaved(float[] data) {
+        transformInterleaved(data, -1.0f);
+    }
+
+    public void inverseInterleaved(float[] data) {
+        transformInterleaved(data, 1.0f);
+
+        float scale = 1.0f / size;
+        for (int i = 0; i < 2 * size; i++) {
+            data[i] *= scale;
+        }
+    }
+
+    private void transformInterleaved(float[] data, float sign) {
+        if (data.length < 2 * size) {
+            throw new IllegalArgumentException("Buffer length " + data.length + " is shorter than " + 2 * size);
+        }
+
+        for (int i = 0; i < size; i++) {
+            int j = bitReversal[i];
+            if (i < j) {
+                float tempReal = data[2 * i];
+                data[2 * i] = data[2 * j];
+                data[2 * j] = tempReal;
+                float tempImaginary = data[2 * i + 1];
+                data[2 * i + 1] = data[2 * j + 1];
+                data[2 * j + 1] = tempImaginary;
+            }
+        }
+
+        int lanes = SimdKernels.FLOAT_SPECIES.length();
+        for (int half = 1; half < size; half *= 2) {
+            if (vectorized && 2 * half >= lanes) {
+                SimdKernels.radix2Interleaved(data, size, half, interleavedCos, interleavedSin,
+                        2 * (half - 1), sign);
+            } else {
+                butterflyPass(data, half, sign);
+            }
+        }
+    }
+
+    private void butterflyPass(float[] data, int half, float sign) {
+        int span = 2 * half;
+        int twiddleStride = size / span;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < half; k++) {
+                float cos = cosTable[k * twiddleStride];
+                float sin = sign * sinTable[k * twiddleStride];
+                int top = 2 * (start + k);
+                int bottom = top + 2 * half;
+
+                float productReal = data[bottom] * cos - data[bottom + 1] * sin;
+                float productImaginary = data[bottom] * sin + data[bottom + 1] * cos;
+
+                data[bottom] = data[top] - productReal;
+                data[bottom + 1] = data[top + 1] - productImaginary;
+                data[top] += productReal;
+                data[top + 1] += productImaginary;
+            }
+        }
+    }
+
+    static float[] toFloat(double[] values) {
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Arrays;
+
+/**
+ * {@link OverlapSaveAdapter} in single precision on {@link FloatRealFftEngine}. The FFT size is chosen the same
+ * way, restricted to powers of two. Blocks are read from the signal by index, so the signal is not copied into
+ * a zero-padded buffer first.
+ */
+public class FloatOverlapSaveAdapter implements FloatConvolution {
+    private final OverlapSaveAdapter sizing = new OverlapSaveAdapter();
+
+    @Override
+    public float[] with(float[] signal, float[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+
+        // FloatRealFftEngine only has the radix-2 transform
+        int fftSize = sizing.calculateOptimalFftSize(signal.length, kernel.length, false);
+        FloatRealFftEngine fft = FloatRealFftEngine.forSize(fftSize);
+
+        float[] kernelTransform = Arrays.copyOf(kernel, fft.bufferLength());
+        fft.forward(kernelTransform);
+
+        int kernelLength = kernel.length;
+        int resultLength = signal.length + kernelLength - 1;
+        int blockSize = fftSize - kernelLength + 1;
+        int blockStartIndex = kernelLength - 1;
+
+        float[] result = new float[resultLength];
+        float[] block = new float[fft.bufferLength()];
+
+        for (int blockIndex = 0; blockIndex < OverlapSaveAdapter.blockCount(resultLength, blockSize); blockIndex++) {
+            int nextBlockStartIndex = blockIndex * blockSize;
+
+            // The block covers signal[nextBlockStartIndex - (K-1), ...); indices outside the signal read as zero
+            extractSignalBlock(signal, nextBlockStartIndex - blockStartIndex, fftSize, block);
+
+            fft.forward(block);
+            SignalTransformer.multiplyInterleaved(block, kernelTransform, block);
+            fft.inverse(block);
+
+            int validLength = Math.min(blockSize, resultLength - nextBlockStartIndex);
+            System.arraycopy(block, blockStartIndex, result, nextBlockStartIndex, validLength);
+        }
+
+        return result;
+    }
+
+    static void extractSignalBlock(float[] signal, int signalStart, int fftSize, float[] block) {
+        int from = Math.max(0, signalStart);
+        int to = Math.min(signal.length, signalStart + fftSize);
+
+        Arrays.fill(block, 0.0f);
+        if (to > from) {
+            System.arraycopy(signal, from, block, from - signalStart, to - from);
+        }
+    }
+}
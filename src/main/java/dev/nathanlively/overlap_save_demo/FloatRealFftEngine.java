@@ -0,0 +1,134 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-precision counterpart of {@link RealFftEngine} built on {@link FloatFftEngine}. Buffers hold
+ * {@link #bufferLength()} = {@code n+2} floats with the same packing: real samples before {@link #forward(float[])},
+ * {@code n/2+1} interleaved bins after it.
+ */
+public final class FloatRealFftEngine {
+
+    private static final Map<Integer, FloatRealFftEngine> ENGINES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int half;
+    private final FloatFftEngine halfSizeFft;
+    private final float[] cosTable;
+    private final float[] sinTable;
+
+    private FloatRealFftEngine(int size) {
+        this.size = size;
+        this.half = size / 2;
+        this.halfSizeFft = FloatFftEngine.forSize(half);
+        double[] cos = new double[half];
+        double[] sin = new double[half];
+        FftEngine.computeTwiddles(size, cos, sin);
+        this.cosTable = FloatFftEngine.toFloat(cos);
+        this.sinTable = FloatFftEngine.toFloat(sin);
+    }
+
+    public static FloatRealFftEngine forSize(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Real FFT size must be a power of two of at least 2: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, FloatRealFftEngine::new);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of non-redundant frequency bins, {@code size/2 + 1}.
+     */
+    public int binCount() {
+        return half + 1;
+    }
+
+    public int bufferLength() {
+        return size + 2;
+    }
+
+    public void forward(float[] data) {
+        checkLength(data.length);
+
+        // Even samples become the real part, odd samples the imaginary part
+        halfSizeFft.forwardInterleaved(data);
+
+        float dcReal = data[0];
+        float dcImaginary = data[1];
+        data[0] = dcReal + dcImaginary;
+        data[1] = 0.0f;
+        data[2 * half] = dcReal - dcImaginary;
+        data[2 * half + 1] = 0.0f;
+
+        for (int k = 1; k <= half / 2; k++) {
+            int j = half - k;
+            float zReal = data[2 * k];
+            float zImaginary = data[2 * k + 1];
+            float mirrorReal = data[2 * j];
+            float mirrorImaginary = data[2 * j + 1];
+
+            // Split Z into the spectra of the even (E) and odd (O) samples
+            float evenReal = 0.5f * (zReal + mirrorReal);
+            float evenImaginary = 0.5f * (zImaginary - mirrorImaginary);
+            float oddReal = 0.5f * (zImaginary + mirrorImaginary);
+            float oddImaginary = -0.5f * (zReal - mirrorReal);
+
+            float cos = cosTable[k];
+            float sin = sinTable[k];
+            float twiddledReal = cos * oddReal + sin * oddImaginary;
+            float twiddledImaginary = cos * oddImaginary - sin * oddReal;
+
+            data[2 * k] = evenReal + twiddledReal;
+            data[2 * k + 1] = evenImaginary + twiddledImaginary;
+            data[2 * j] = evenReal - twiddledReal;
+            data[2 * j + 1] = twiddledImaginary - evenImaginary;
+        }
+    }
+
+    public void inverse(float[] data) {
+        checkLength(data.length);
+
+        float dcReal = data[0];
+        float nyquistReal = data[2 * half];
+        data[0] = 0.5f * (dcReal + nyquistReal);
+        data[1] = 0.5f * (dcReal - nyquistReal);
+
+        for (int k = 1; k <= half / 2; k++) {
+            int j = half - k;
+            float xReal = data[2 * k];
+            float xImaginary = data[2 * k + 1];
+            float mirrorReal = data[2 * j];
+            float mirrorImaginary = data[2 * j + 1];
+
+            float evenReal = 0.5f * (xReal + mirrorReal);
+            float evenImaginary = 0.5f * (xImaginary - mirrorImaginary);
+            float differenceReal = 0.5f * (xReal - mirrorReal);
+            float differenceImaginary = 0.5f * (xImaginary + mirrorImaginary);
+
+            float cos = cosTable[k];
+            float sin = sinTable[k];
+            float oddReal = differenceReal * cos - differenceImaginary * sin;
+            float oddImaginary = differenceReal * sin + differenceImaginary * cos;
+
+            // Repack as Z = E + iO
+            data[2 * k] = evenReal - oddImaginary;
+            data[2 * k + 1] = evenImaginary + oddReal;
+            data[2 * j] = evenReal + oddImaginary;
+            data[2 * j + 1] = oddReal - evenImaginary;
+        }
+
+        halfSizeFft.inverseInterleaved(data);
+        data[size] = 0.0f;
+        data[size + 1] = 0.0f;
+    }
+
+    private void checkLength(int actual) {
+        if (actual < size + 2) {
+            throw new IllegalArgumentException("Buffer length " + actual + " is shorter than " + (size + 2));
+        }
+    }
+}
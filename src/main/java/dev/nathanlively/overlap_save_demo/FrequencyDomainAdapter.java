@@ -1,31 +1,44 @@
 package dev.nathanlively.overlap_save_demo;
 
-import org.apache.arrow.memory.util.CommonUtil;
-import org.apache.commons.numbers.complex.Complex;
+import java.util.Arrays;
 
 public class FrequencyDomainAdapter implements Convolution {
     @Override
     public double[] with(double[] signal, double[] kernel) {
         SignalTransformer.validate(signal, kernel);
 
-        int resultLength = signal.length + kernel.length - 1;
-        int paddedLength = CommonUtil.nextPowerOfTwo(resultLength);
+        double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
+
+    /**
+     * The transform buffer is the one full-size allocation; the result is copied from it into {@code output}.
+     */
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        int paddedLength = paddedLength(resultLength);
+        RealFftEngine fft = RealFftEngine.forSize(paddedLength);
 
-        final double[] paddedSignal = SignalTransformer.pad(signal, paddedLength);
-        final double[] paddedKernel = SignalTransformer.pad(kernel, paddedLength);
-        final Complex[] signalTransform = SignalTransformer.fft(paddedSignal);
-        final Complex[] kernelTransform = SignalTransformer.fft(paddedKernel);
+        // Real signals only need the non-negative half of the spectrum
+        final double[] signalTransform = Arrays.copyOf(signal, fft.bufferLength());
+        final double[] kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, paddedLength);
+        fft.forward(signalTransform);
 
-        final Complex[] productTransform = SignalTransformer.multiply(signalTransform, kernelTransform);
-        final double[] convolutionResult = SignalTransformer.ifft(productTransform);
+        SignalTransformer.multiplyInterleaved(signalTransform, kernelTransform, signalTransform);
+        fft.inverse(signalTransform);
 
-        return extractValidPortion(convolutionResult, resultLength);
+        System.arraycopy(signalTransform, 0, output, outputOffset, resultLength);
     }
 
-    private double[] extractValidPortion(double[] paddedResult, int validLength) {
-        double[] result = new double[validLength];
-        System.arraycopy(paddedResult, 0, result, 0, validLength);
-        return result;
+    /**
+     * FFT size for a result of {@code resultLength} samples: the next power of two, or a smaller size with
+     * factors of 3 and 5 when that is cheaper.
+     */
+    static int paddedLength(int resultLength) {
+        return RealFftEngine.cheapestSizeAtLeast(resultLength);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Shortens a measured impulse response by cutting the tail of measurement noise, and any DC offset, that follows
+ * the end of its decay. Kernel length sets the FFT size in {@link OverlapSaveAdapter}, so a shorter kernel saves
+ * both time and memory.
+ * <p>
+ * The noise floor is the mean energy of the last tenth of the response. The decay point is found by Schroeder
+ * backward integration with that floor, raised by {@value #NOISE_MARGIN_DB} dB, subtracted from every sample's
+ * energy. The compensated curve reaches its minimum where the decay sinks into the noise. The response is cut
+ * there, and its last samples are faded out with a raised cosine.
+ * <p>
+ * The error budget bounds the energy removed by the cut and fade, relative to the whole response. For broadband
+ * input it is also the level of the difference between the original and trimmed outputs. If cutting at the
+ * decay point would remove too much, the cut moves later until the budget holds.
+ */
+public final class ImpulseResponseTrimmer {
+    public static final double DEFAULT_ERROR_BUDGET_DB = -60;
+    public static final int DEFAULT_FADE_LENGTH = 256;
+    static final double NOISE_MARGIN_DB = 3;
+
+    private final double errorBudgetDb;
+    private final int fadeLength;
+
+    public ImpulseResponseTrimmer() {
+        this(DEFAULT_ERROR_BUDGET_DB, DEFAULT_FADE_LENGTH);
+    }
+
+    /**
+     * @param errorBudgetDb largest removed energy, in dB relative to the whole response, for example -60
+     * @param fadeLength    samples faded out before the cut
+     */
+    public ImpulseResponseTrimmer(double errorBudgetDb, int fadeLength) {
+        if (!(errorBudgetDb < 0)) {
+            throw new IllegalArgumentException("Error budget must be below 0 dB: " + errorBudgetDb);
+        }
+        if (fadeLength < 0) {
+            throw new IllegalArgumentException("Fade length must not be negative: " + fadeLength);
+        }
+        this.errorBudgetDb = errorBudgetDb;
+        this.fadeLength = fadeLength;
+    }
+
+    public Result trim(double[] impulseResponse) {
+        Objects.requireNonNull(impulseResponse, "impulseResponse cannot be null");
+        int length = impulseResponse.length;
+        if (length == 0) {
+            throw new NoDataException();
+        }
+
+        // tailEnergy[i] is the energy from sample i to the end, the uncompensated Schroeder integral
+        double[] tailEnergy = new double[length + 1];
+        double peakEnergy = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            double energy = impulseResponse[i] * impulseResponse[i];
+            tailEnergy[i] = tailEnergy[i + 1] + energy;
+            peakEnergy = Math.max(peakEnergy, energy);
+        }
+        double totalEnergy = tailEnergy[0];
+
+        int noiseStart = length - Math.max(1, length / 10);
+        double noisePower = tailEnergy[noiseStart] / (length - noiseStart);
+        int decayPoint = decayPoint(tailEnergy, noisePower * Math.pow(10, NOISE_MARGIN_DB / 10));
+
+        // The cut removes at least the energy after it, so the budget cannot hold any earlier than this
+        double allowedEnergy = totalEnergy * Math.pow(10, errorBudgetDb / 10);
+        int trimmedLength = Math.max(1, decayPoint);
+        while (tailEnergy[trimmedLength] > allowedEnergy) {
+            trimmedLength++;
+        }
+        // The fade removes a little more. Cutting fadeLength later than the point above always fits the budget.
+        while (trimmedLength < length && removedEnergy(impulseResponse, tailEnergy, trimmedLength) > allowedEnergy) {
+            trimmedLength++;
+        }
+
+        double[] kernel = Arrays.copyOf(impulseResponse, trimmedLength);
+        double removedEnergy = 0;
+        if (trimmedLength < length) {
+            removedEnergy = removedEnergy(impulseResponse, tailEnergy, trimmedLength);
+            fadeOut(kernel, Math.min(fadeLength, trimmedLength));
+        }
+
+        return new Result(kernel, length, decibels(noisePower, peakEnergy), decayPoint,
+                decibels(removedEnergy, totalEnergy));
+    }
+
+    /**
+     * Minimum of the Schroeder integral of {@code energy - floor}. Past it no stretch of the response carries more
+     * energy than the floor, and before it every stretch up to the minimum carries more.
+     */
+    private static int decayPoint(double[] tailEnergy, double floor) {
+        int length = tailEnergy.length - 1;
+        int decayPoint = length;
+        double minimum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            double compensated = tailEnergy[i] - (length - i) * floor;
+            // Ties go to the earliest sample, so trailing zeros are cut as well
+            if (compensated <= minimum) {
+                minimum = compensated;
+                decayPoint = i;
+            }
+        }
+        return decayPoint;
+    }
+
+    // Energy after the cut plus the energy the fade takes out of the samples before it
+    private double removedEnergy(double[] impulseResponse, double[] tailEnergy, int trimmedLength) {
+        int fade = Math.min(fadeLength, trimmedLength);
+        int start = trimmedLength - fade;
+        double removed = tailEnergy[trimmedLength];
+        for (int k = 0; k < fade; k++) {
+            double loss = impulseResponse[start + k] * (1 - fadeGain(k, fade));
+            removed += loss * loss;
+        }
+        return removed;
+    }
+
+    private static void fadeOut(double[] kernel, int fadeLength) {
+        int start = kernel.length - fadeLength;
+        for (int k = 0; k < fadeLength; k++) {
+            kernel[start + k] *= fadeGain(k, fadeLength);
+        }
+    }
+
+    // Raised cosine falling from just below 1 to just above 0
+    private static double fadeGain(int index, int fadeLength) {
+        return 0.5 * (1 + Math.cos(Math.PI * (index + 1) / (fadeLength + 1)));
+    }
+
+    private static double decibels(double energy, double reference) {
+        return reference == 0 ? Double.NEGATIVE_INFINITY : 10 * Math.log10(energy / reference);
+    }
+
+    /**
+     * @param noiseFloorDb mean noise energy per sample relative to the peak sample
+     * @param decayPoint   sample where the decay meets the noise floor, or the original length if it never does
+     * @param errorDb      energy removed by trimming relative to the whole response
+     */
+    public record Result(double[] kernel, int originalLength, double noiseFloorDb, int decayPoint, double errorDb) {
+
+        public int trimmedLength() {
+            return kernel.length;
+        }
+
+        /**
+         * Fraction of the original length removed, from 0 to 1.
+         */
+        public double reduction() {
+            return 1 - (double) kernel.length / originalLength;
+        }
+
+        public String summary() {
+            return String.format("%d -> %d samples (%.1f%% shorter), noise floor %.1f dB, error %.1f dB",
+                    originalLength, kernel.length, 100 * reduction(), noiseFloorDb, errorDb);
+        }
+    }
+}
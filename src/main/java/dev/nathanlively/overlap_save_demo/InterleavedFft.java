@@ -0,0 +1,13 @@
+package dev.nathanlively.overlap_save_demo;
+
+/**
+ * Complex FFT on interleaved {@code [re0, im0, re1, im1, ...]} buffers, as used by {@link RealFftEngine} for its
+ * half-size transform.
+ */
+interface InterleavedFft {
+    int size();
+
+    void forwardInterleaved(double[] data);
+
+    void inverseInterleaved(double[] data);
+}
@@ -0,0 +1,114 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of packed kernel spectra (see {@link RealFftEngine}) keyed by kernel content and FFT size.
+ * Least recently used entries are evicted once the kernels and spectra held exceed {@code maxBytes}. A spectrum
+ * larger than half of {@code maxBytes} is returned without being cached, so one oversized transform cannot flush
+ * every other kernel.
+ * <p>
+ * Returned spectra are shared between callers and must be treated as read-only.
+ */
+public final class KernelSpectrumCache {
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final KernelSpectrumCache SHARED = new KernelSpectrumCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long hitCount;
+    private long missCount;
+
+    public KernelSpectrumCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must be non-negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public static KernelSpectrumCache shared() {
+        return SHARED;
+    }
+
+    public double[] spectrum(double[] kernel, int fftSize) {
+        if (fftSize < kernel.length) {
+            throw new IllegalArgumentException("FFT size must be no smaller than the kernel");
+        }
+        Key key = new Key(Arrays.hashCode(kernel), kernel.length, fftSize);
+
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && Arrays.equals(cached.kernel(), kernel)) {
+                hitCount++;
+                return cached.spectrum();
+            }
+            missCount++;
+        }
+
+        // Transform outside the lock so other kernels are not held up
+        RealFftEngine fft = RealFftEngine.forSize(fftSize);
+        double[] spectrum = Arrays.copyOf(kernel, fft.bufferLength());
+        fft.forward(spectrum);
+        Entry entry = new Entry(kernel.clone(), spectrum);
+        if (entry.bytes() > maxBytes / 2) {
+            return spectrum;
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                currentBytes -= previous.bytes();
+            }
+            currentBytes += entry.bytes();
+            evictToBudget();
+        }
+        return spectrum;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+
+    private record Key(int contentHash, int kernelLength, int fftSize) {
+    }
+
+    private record Entry(double[] kernel, double[] spectrum) {
+        long bytes() {
+            return (long) Double.BYTES * (kernel.length + spectrum.length);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative {@code long} values, in the style of HdrHistogram. Values below 128 are
+ * counted exactly. Larger values share each power-of-two range between 64 sub-buckets, so any recorded value
+ * is reported within 1/64 (about 1.6%) of its true size. Recording is allocation-free and constant time, so it
+ * is safe on a real-time path.
+ * <p>
+ * Not thread-safe.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    // Shifts of 1 to 56 cover the rest of the long range
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS) * HALF_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non-negative: " + value);
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long min() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Smallest recorded value that at least {@code percentile} percent of values are at or below, reported as
+     * the top of its bucket but never above {@link #max()}. Returns 0 for an empty histogram.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulative = 0;
+        for (int index = 0; index < counts.length; index++) {
+            cumulative += counts[index];
+            if (cumulative >= target) {
+                return Math.min(max, highestEquivalentValue(index));
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Shift so the value keeps its top SUB_BUCKET_BITS bits, landing in [HALF_COUNT, SUB_BUCKET_COUNT)
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (subBucket - HALF_COUNT);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+        long upper = ((subBucket + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,279 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reads a WAV file by memory-mapping its data chunk instead of loading it onto the heap. The RIFF header is
+ * parsed here (RIFF and RF64, PCM and IEEE float, including {@code WAVE_FORMAT_EXTENSIBLE}), and samples are only
+ * decoded when a window or block is requested, so files of any length can be streamed in constant memory.
+ * <p>
+ * Samples are decoded straight from the mapping by {@link PcmCodec}, so PCM is scaled like {@link WavFileReader},
+ * by {@code 2^(bits-1) - 1}. Close the reader to unmap the file; windows and blocks already decoded stay valid.
+ */
+public final class MappedWavReader implements AutoCloseable {
+
+    static final int FORMAT_PCM = 1;
+    static final int FORMAT_IEEE_FLOAT = 3;
+    static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Arena arena;
+    private final MemorySegment data;
+    private final long sampleRate;
+    private final int channelCount;
+    private final int bitDepth;
+    private final boolean floatingPoint;
+    private final int bytesPerSample;
+    private final int frameSize;
+    private final long frameCount;
+
+    private MappedWavReader(Path path, FileChannel channel, Header header) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.sampleRate = header.sampleRate;
+        this.channelCount = header.channelCount;
+        this.bitDepth = header.bitDepth;
+        this.floatingPoint = header.floatingPoint;
+        this.bytesPerSample = header.bitDepth / 8;
+        this.frameSize = bytesPerSample * header.channelCount;
+
+        // A truncated file keeps its whole frames
+        long available = Math.min(header.dataSize, channel.size() - header.dataOffset);
+        this.frameCount = Math.max(0, available) / frameSize;
+        Arena mappingArena = Arena.ofShared();
+        try {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, header.dataOffset, frameCount * frameSize,
+                    mappingArena);
+        } catch (IOException | RuntimeException e) {
+            // open() only closes the channel, so a failed mapping must release its arena here
+            mappingArena.close();
+            throw e;
+        }
+        this.arena = mappingArena;
+    }
+
+    public static MappedWavReader open(Path path) {
+        Objects.requireNonNull(path, "path cannot be null");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            return new MappedWavReader(path, channel, Header.parse(channel, path));
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            if (e instanceof IllegalArgumentException illegalArgument) {
+                throw illegalArgument;
+            }
+            throw new RuntimeException("Failed to open WAV file: " + path, e);
+        }
+    }
+
+    public long sampleRate() {
+        return sampleRate;
+    }
+
+    public int channelCount() {
+        return channelCount;
+    }
+
+    public int bitDepth() {
+        return bitDepth;
+    }
+
+    public boolean floatingPoint() {
+        return floatingPoint;
+    }
+
+    public long frameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Decodes {@code length} frames of one channel starting at {@code firstFrame} into {@code destination}.
+     */
+    public void read(int channelIndex, long firstFrame, double[] destination, int offset, int length) {
+        Objects.checkIndex(channelIndex, channelCount);
+        Objects.checkFromIndexSize(firstFrame, length, frameCount);
+        Objects.checkFromIndexSize(offset, length, destination.length);
+
+        long position = firstFrame * frameSize + (long) channelIndex * bytesPerSample;
+        PcmCodec.decodeChannel(data, position, frameSize, bitDepth, floatingPoint, destination, offset, length);
+    }
+
+    /**
+     * Decodes a whole channel into a new native-memory signal, which the caller must close. Only one small heap
+     * buffer is used, so the file may be longer than any array.
+     */
+    public OffHeapSignal readChannel(int channelIndex) {
+        Objects.checkIndex(channelIndex, channelCount);
+        OffHeapSignal signal = OffHeapSignal.allocate(frameCount);
+        double[] buffer = new double[(int) Math.min(frameCount, 8192)];
+        for (long frame = 0; frame < frameCount; frame += buffer.length) {
+            int length = (int) Math.min(buffer.length, frameCount - frame);
+            read(channelIndex, frame, buffer, 0, length);
+            signal.write(frame, buffer, 0, length);
+        }
+        return signal;
+    }
+
+    /**
+     * Decodes a window of up to {@code length} frames of every channel, fewer at the end of the file.
+     */
+    public double[][] window(long firstFrame, int length) {
+        Objects.checkIndex(firstFrame, frameCount + 1);
+        int frames = (int) Math.min(length, frameCount - firstFrame);
+        double[][] channels = new double[channelCount][frames];
+        for (int c = 0; c < channelCount; c++) {
+            read(c, firstFrame, channels[c], 0, frames);
+        }
+        return channels;
+    }
+
+    /**
+     * Iterates over the file in blocks of {@code blockFrames}. The block's channel arrays are reused for every
+     * block, so copy them if they must outlive the next call to {@code next()}.
+     */
+    public Iterator<Block> blocks(int blockFrames) {
+        if (blockFrames < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockFrames);
+        }
+        double[][] buffers = new double[channelCount][blockFrames];
+
+        return new Iterator<>() {
+            private long position;
+
+            @Override
+            public boolean hasNext() {
+                return position < frameCount;
+            }
+
+            @Override
+            public Block next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int frames = (int) Math.min(blockFrames, frameCount - position);
+                for (int c = 0; c < channelCount; c++) {
+                    read(c, position, buffers[c], 0, frames);
+                }
+                Block block = new Block(position, frames, buffers);
+                position += frames;
+                return block;
+            }
+        };
+    }
+
+    /**
+     * A block of {@code frameCount} frames starting at {@code startFrame}. Only the first {@code frameCount}
+     * entries of each channel array are valid.
+     */
+    public record Block(long startFrame, int frameCount, double[][] channels) {
+    }
+
+    @Override
+    public void close() {
+        try {
+            arena.close();
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close WAV file: " + path, e);
+        }
+    }
+
+
+    private record Header(long sampleRate, int channelCount, int bitDepth, boolean floatingPoint,
+                          long dataOffset, long dataSize) {
+
+        static Header parse(FileChannel channel, Path path) throws IOException {
+            ByteBuffer riff = readAt(channel, 0, 12);
+            String riffId = fourCc(riff, 0);
+            if (!("RIFF".equals(riffId) || "RF64".equals(riffId)) || !"WAVE".equals(fourCc(riff, 8))) {
+                throw new IllegalArgumentException("Not a RIFF/WAVE file: " + path);
+            }
+            boolean rf64 = "RF64".equals(riffId);
+
+            long position = 12;
+            long ds64DataSize = -1;
+            ByteBuffer format = null;
+            while (position + 8 <= channel.size()) {
+                ByteBuffer chunkHeader = readAt(channel, position, 8);
+                String id = fourCc(chunkHeader, 0);
+                long size = Integer.toUnsignedLong(chunkHeader.getInt(4));
+                long body = position + 8;
+
+                if ("ds64".equals(id)) {
+                    ds64DataSize = readAt(channel, body, 16).getLong(8);
+                } else if ("fmt ".equals(id)) {
+                    format = readAt(channel, body, (int) Math.min(size, 40));
+                } else if ("data".equals(id)) {
+                    if (format == null) {
+                        throw new IllegalArgumentException("WAV data chunk precedes its fmt chunk: " + path);
+                    }
+                    long dataSize = rf64 && size == 0xFFFFFFFFL && ds64DataSize >= 0 ? ds64DataSize : size;
+                    return fromFormat(format, body, dataSize, path);
+                }
+
+                // Chunks are padded to an even length
+                position = body + size + (size & 1);
+            }
+            throw new IllegalArgumentException("WAV file has no data chunk: " + path);
+        }
+
+        private static Header fromFormat(ByteBuffer format, long dataOffset, long dataSize, Path path) {
+            int formatTag = Short.toUnsignedInt(format.getShort(0));
+            int channelCount = Short.toUnsignedInt(format.getShort(2));
+            long sampleRate = Integer.toUnsignedLong(format.getInt(4));
+            int bitDepth = Short.toUnsignedInt(format.getShort(14));
+            if (formatTag == FORMAT_EXTENSIBLE && format.limit() >= 26) {
+                // The sub-format GUID starts with the plain format tag
+                formatTag = Short.toUnsignedInt(format.getShort(24));
+            }
+
+            boolean supported = switch (formatTag) {
+                case FORMAT_PCM -> bitDepth == 8 || bitDepth == 16 || bitDepth == 24 || bitDepth == 32;
+                case FORMAT_IEEE_FLOAT -> bitDepth == 32 || bitDepth == 64;
+                default -> false;
+            };
+            if (!supported || channelCount == 0) {
+                throw new IllegalArgumentException("Unsupported WAV format " + formatTag + " with " + bitDepth
+                                                   + " bits and " + channelCount + " channels: " + path);
+            }
+            return new Header(sampleRate, channelCount, bitDepth, formatTag == FORMAT_IEEE_FLOAT,
+                    dataOffset, dataSize);
+        }
+
+        private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IllegalArgumentException("Truncated WAV header");
+                }
+            }
+            return buffer.flip();
+        }
+
+        private static String fourCc(ByteBuffer buffer, int offset) {
+            char[] id = new char[4];
+            for (int i = 0; i < 4; i++) {
+                id[i] = (char) (buffer.get(offset + i) & 0xFF);
+            }
+            return new String(id);
+        }
+    }
+}
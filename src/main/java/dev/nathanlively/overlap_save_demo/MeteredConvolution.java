@@ -0,0 +1,249 @@
+package dev.nathanlively.overlap_save_demo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates a {@link Convolution} with Micrometer metrics. Every call records:
+ * <ul>
+ *     <li>{@code convolution.duration}, a timer tagged by {@code implementation}, {@code signal.size} and
+ *     {@code kernel.size} class</li>
+ *     <li>{@code convolution.samples}, the signal samples processed, whose rate is the throughput in samples per
+ *     second</li>
+ *     <li>{@code convolution.blocks} and {@code convolution.fft.size}, the blocks processed and the FFT size
+ *     chosen, for engines built on a single FFT size</li>
+ *     <li>{@code convolution.allocated}, the bytes allocated by the calling thread, where the JVM can measure
+ *     it</li>
+ * </ul>
+ * {@link AdaptiveConvolution} is reported as the engine it picks for each call. Meters are looked up once per
+ * implementation and size class, and FFT sizes are remembered per signal and kernel length, so a call costs two
+ * clock reads, two allocation counter reads and a few atomic adds on top of the convolution.
+ */
+public final class MeteredConvolution implements Convolution {
+    private static final int[] SIGNAL_SIZE_BOUNDS = {1 << 10, 1 << 16, 1 << 20};
+    private static final String[] SIGNAL_SIZE_CLASSES = {"<=1k", "<=64k", "<=1M", ">1M"};
+    private static final int[] KERNEL_SIZE_BOUNDS = {1 << 6, 1 << 10, 1 << 14};
+    private static final String[] KERNEL_SIZE_CLASSES = {"<=64", "<=1k", "<=16k", ">16k"};
+
+    private static final OverlapSaveAdapter SIZING = new OverlapSaveAdapter();
+    private static final int FFT_SIZE_SLOTS = 256;
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    private final Convolution delegate;
+    private final MeterRegistry registry;
+    private final Map<Class<?>, EngineMeters> meters = new ConcurrentHashMap<>();
+    private final FftSizeEntry[] fftSizes = new FftSizeEntry[FFT_SIZE_SLOTS];
+
+    public MeteredConvolution(Convolution delegate, MeterRegistry registry) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.registry = Objects.requireNonNull(registry, "registry cannot be null");
+    }
+
+    public Convolution delegate() {
+        return delegate;
+    }
+
+    @Override
+    public double[] with(double[] signal, double[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        double[] result = delegate.with(signal, kernel);
+        record(signal.length, kernel.length, signal.length, System.nanoTime() - start, allocatedBefore, null);
+        return result;
+    }
+
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        delegate.with(signal, kernel, output, outputOffset);
+        record(signal.length, kernel.length, signal.length, System.nanoTime() - start, allocatedBefore, null);
+    }
+
+    /**
+     * Delegates the whole batch so engines that share work across signals keep doing so. The batch is timed as
+     * one call sized by its longest signal, and FFT sizes and blocks are recorded for each signal.
+     */
+    @Override
+    public List<double[]> withAll(List<double[]> signals, double[] kernel) {
+        Objects.requireNonNull(signals, "signals cannot be null");
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        List<double[]> results = delegate.withAll(signals, kernel);
+        long elapsed = System.nanoTime() - start;
+
+        int longest = 0;
+        long samples = 0;
+        for (double[] signal : signals) {
+            longest = Math.max(longest, signal.length);
+            samples += signal.length;
+        }
+        if (!signals.isEmpty()) {
+            record(longest, kernel.length, samples, elapsed, allocatedBefore, signals);
+        }
+        return results;
+    }
+
+    /**
+     * @param batch the signals of a {@link #withAll(List, double[])} call, whose blocks are counted separately,
+     *              or {@code null} for a single signal
+     */
+    private void record(int signalLength, int kernelLength, long samples, long elapsedNanos, long allocatedBefore,
+                        List<double[]> batch) {
+        long allocated = allocatedBytes() - allocatedBefore;
+        Convolution engine = delegate instanceof AdaptiveConvolution adaptive
+                ? adaptive.select(signalLength, kernelLength).convolution()
+                : delegate;
+        EngineMeters engineMeters = meters.computeIfAbsent(engine.getClass(), EngineMeters::new);
+
+        engineMeters.timer(sizeClass(signalLength, SIGNAL_SIZE_BOUNDS), sizeClass(kernelLength, KERNEL_SIZE_BOUNDS))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        engineMeters.samples.increment(samples);
+        if (allocatedBefore >= 0) {
+            engineMeters.allocated.record(allocated);
+        }
+
+        if (batch == null) {
+            recordBlocks(engineMeters, engine, signalLength, kernelLength);
+        } else {
+            for (double[] signal : batch) {
+                recordBlocks(engineMeters, engine, signal.length, kernelLength);
+            }
+        }
+    }
+
+    private void recordBlocks(EngineMeters engineMeters, Convolution engine, int signalLength, int kernelLength) {
+        int fftSize = fftSize(engine, signalLength, kernelLength);
+        if (fftSize > 0) {
+            engineMeters.fftSizes.record(fftSize);
+            engineMeters.blocks.increment(blockCount(engine, fftSize, signalLength, kernelLength));
+        }
+    }
+
+    /**
+     * FFT size the engine uses for this shape, or 0 if it does not use a single FFT size.
+     */
+    private int fftSize(Convolution engine, int signalLength, int kernelLength) {
+        if (engine instanceof OverlapSaveAdapter || engine instanceof ParallelOverlapSaveAdapter) {
+            return overlapSaveFftSize(signalLength, kernelLength);
+        }
+        if (engine instanceof FrequencyDomainAdapter) {
+            return FrequencyDomainAdapter.paddedLength(signalLength + kernelLength - 1);
+        }
+        if (engine instanceof UniformPartitionedAdapter uniform) {
+            return 2 * uniform.blockSize();
+        }
+        return 0;
+    }
+
+    // The size search builds a candidate list, so its answers are kept in a small direct-mapped table
+    private int overlapSaveFftSize(int signalLength, int kernelLength) {
+        int slot = (31 * signalLength + kernelLength) & (FFT_SIZE_SLOTS - 1);
+        FftSizeEntry entry = fftSizes[slot];
+        if (entry == null || entry.signalLength() != signalLength || entry.kernelLength() != kernelLength) {
+            entry = new FftSizeEntry(signalLength, kernelLength,
+                    SIZING.calculateOptimalFftSize(signalLength, kernelLength));
+            // Entries are immutable, so a racing thread sees either a whole entry or none
+            fftSizes[slot] = entry;
+        }
+        return entry.fftSize();
+    }
+
+    private static long blockCount(Convolution engine, int fftSize, int signalLength, int kernelLength) {
+        int resultLength = signalLength + kernelLength - 1;
+        if (engine instanceof UniformPartitionedAdapter) {
+            // The partitioned convolver also runs a block of silence to flush its latency
+            int blockSize = fftSize / 2;
+            return (resultLength + blockSize) / blockSize;
+        }
+        if (engine instanceof FrequencyDomainAdapter) {
+            return 1;
+        }
+        return OverlapSaveAdapter.blockCount(resultLength, fftSize - kernelLength + 1);
+    }
+
+    private static int sizeClass(int length, int[] bounds) {
+        int sizeClass = 0;
+        while (sizeClass < bounds.length && length > bounds[sizeClass]) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_COUNTER == null ? -1 : ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private record FftSizeEntry(int signalLength, int kernelLength, int fftSize) {
+    }
+
+    private final class EngineMeters {
+        private final String implementation;
+        private final Timer[] timers = new Timer[SIGNAL_SIZE_CLASSES.length * KERNEL_SIZE_CLASSES.length];
+        private final Counter samples;
+        private final Counter blocks;
+        private final DistributionSummary fftSizes;
+        private final DistributionSummary allocated;
+
+        EngineMeters(Class<?> engine) {
+            this.implementation = engine.getSimpleName();
+            this.samples = Counter.builder("convolution.samples")
+                    .description("Signal samples convolved")
+                    .baseUnit("samples")
+                    .tag("implementation", implementation)
+                    .register(registry);
+            this.blocks = Counter.builder("convolution.blocks")
+                    .description("FFT blocks processed")
+                    .baseUnit("blocks")
+                    .tag("implementation", implementation)
+                    .register(registry);
+            this.fftSizes = DistributionSummary.builder("convolution.fft.size")
+                    .description("FFT size chosen per call")
+                    .tag("implementation", implementation)
+                    .register(registry);
+            this.allocated = DistributionSummary.builder("convolution.allocated")
+                    .description("Bytes allocated by the calling thread per call")
+                    .baseUnit("bytes")
+                    .tag("implementation", implementation)
+                    .register(registry);
+        }
+
+        // Registered on first use, so only the size classes an engine actually sees are published
+        Timer timer(int signalSizeClass, int kernelSizeClass) {
+            int index = signalSizeClass * KERNEL_SIZE_CLASSES.length + kernelSizeClass;
+            Timer timer = timers[index];
+            if (timer == null) {
+                timer = Timer.builder("convolution.duration")
+                        .description("Time per convolution call")
+                        .tag("implementation", implementation)
+                        .tag("signal.size", SIGNAL_SIZE_CLASSES[signalSizeClass])
+                        .tag("kernel.size", KERNEL_SIZE_CLASSES[kernelSizeClass])
+                        .register(registry);
+                timers[index] = timer;
+            }
+            return timer;
+        }
+    }
+}
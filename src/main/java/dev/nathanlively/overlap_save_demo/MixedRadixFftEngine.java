@@ -0,0 +1,362 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-place complex FFT for sizes of the form {@code 2^a * 3^b * 5^c} on interleaved
+ * {@code [re0, im0, re1, im1, ...]} buffers. It is a decimation-in-time Cooley-Tukey transform with radix-4, 2,
+ * 3 and 5 stages. The input is first put in mixed-radix digit-reversed order by following precomputed
+ * permutation cycles, so, like {@link FftEngine}, transforms allocate nothing. Instances are immutable and safe
+ * to share between threads.
+ * <p>
+ * Power-of-two sizes are better served by {@link FftEngine}, which has vectorized passes.
+ */
+public final class MixedRadixFftEngine implements InterleavedFft {
+
+    private static final Map<Integer, MixedRadixFftEngine> ENGINES = new ConcurrentHashMap<>();
+    private static final int[] PRIMES = {2, 3, 5};
+
+    private static final double SIN_60 = Math.sqrt(0.75);
+    private static final double COS_72 = Math.cos(2 * Math.PI / 5);
+    private static final double COS_144 = Math.cos(4 * Math.PI / 5);
+    private static final double SIN_72 = Math.sin(2 * Math.PI / 5);
+    private static final double SIN_144 = Math.sin(4 * Math.PI / 5);
+
+    private final int size;
+    private final int[] radices;
+    // Each stage's twiddles w^(j*k) for j in [1, radix) and k in [0, span), interleaved cos/sin
+    private final double[][] twiddles;
+    // Permutation cycles flattened as [length, start, next, ...], each sample moving to where the next one was
+    private final int[] cycles;
+
+    private MixedRadixFftEngine(int size) {
+        this.size = size;
+        this.radices = factor(size);
+        this.twiddles = new double[radices.length][];
+        int span = 1;
+        for (int stage = 0; stage < radices.length; stage++) {
+            int radix = radices[stage];
+            int length = span * radix;
+            double[] table = new double[2 * (radix - 1) * span];
+            for (int j = 1; j < radix; j++) {
+                for (int k = 0; k < span; k++) {
+                    double angle = 2.0 * Math.PI * j * k / length;
+                    int index = 2 * ((j - 1) * span + k);
+                    table[index] = Math.cos(angle);
+                    table[index + 1] = Math.sin(angle);
+                }
+            }
+            twiddles[stage] = table;
+            span = length;
+        }
+        this.cycles = computeCycles(digitReversal(size, radices));
+    }
+
+    public static MixedRadixFftEngine forSize(int size) {
+        if (!isSupportedSize(size)) {
+            throw new IllegalArgumentException("FFT size must be a product of 2, 3 and 5: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, MixedRadixFftEngine::new);
+    }
+
+    /**
+     * Whether {@code size} is positive and has no prime factors other than 2, 3 and 5.
+     */
+    public static boolean isSupportedSize(int size) {
+        if (size < 1) {
+            return false;
+        }
+        for (int prime : PRIMES) {
+            while (size % prime == 0) {
+                size /= prime;
+            }
+        }
+        return size == 1;
+    }
+
+    /**
+     * Smallest size of at least {@code minimum} with no prime factors other than 2, 3 and 5.
+     */
+    public static int nextSupportedSize(int minimum) {
+        int size = Math.max(1, minimum);
+        while (!isSupportedSize(size)) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forwardInterleaved(double[] data) {
+        transform(data, -1.0);
+    }
+
+    /**
+     * Inverse transform, scaled by {@code 1/size} so that the round trip restores the input.
+     */
+    @Override
+    public void inverseInterleaved(double[] data) {
+        transform(data, 1.0);
+
+        double scale = 1.0 / size;
+        for (int i = 0; i < 2 * size; i++) {
+            data[i] *= scale;
+        }
+    }
+
+    private void transform(double[] data, double sign) {
+        if (data.length < 2 * size) {
+            throw new IllegalArgumentException("Buffer length " + data.length + " is shorter than " + 2 * size);
+        }
+
+        permute(data);
+        int span = 1;
+        for (int stage = 0; stage < radices.length; stage++) {
+            switch (radices[stage]) {
+                case 2 -> radix2(data, span, twiddles[stage], sign);
+                case 3 -> radix3(data, span, twiddles[stage], sign);
+                case 4 -> radix4(data, span, twiddles[stage], sign);
+                default -> radix5(data, span, twiddles[stage], sign);
+            }
+            span *= radices[stage];
+        }
+    }
+
+    private void permute(double[] data) {
+        int index = 0;
+        while (index < cycles.length) {
+            int length = cycles[index];
+            int first = cycles[index + 1];
+            double real = data[2 * first];
+            double imaginary = data[2 * first + 1];
+            for (int i = 1; i < length; i++) {
+                int to = cycles[index + i];
+                int from = cycles[index + i + 1];
+                data[2 * to] = data[2 * from];
+                data[2 * to + 1] = data[2 * from + 1];
+            }
+            int last = cycles[index + length];
+            data[2 * last] = real;
+            data[2 * last + 1] = imaginary;
+            index += length + 1;
+        }
+    }
+
+    private void radix2(double[] data, int span, double[] table, double sign) {
+        for (int start = 0; start < size; start += 2 * span) {
+            for (int k = 0; k < span; k++) {
+                int a = 2 * (start + k);
+                int b = a + 2 * span;
+                double cos = table[2 * k];
+                double sin = sign * table[2 * k + 1];
+                double bReal = data[b] * cos - data[b + 1] * sin;
+                double bImaginary = data[b] * sin + data[b + 1] * cos;
+
+                data[b] = data[a] - bReal;
+                data[b + 1] = data[a + 1] - bImaginary;
+                data[a] += bReal;
+                data[a + 1] += bImaginary;
+            }
+        }
+    }
+
+    private void radix3(double[] data, int span, double[] table, double sign) {
+        double sin60 = sign * SIN_60;
+        for (int start = 0; start < size; start += 3 * span) {
+            for (int k = 0; k < span; k++) {
+                int a = 2 * (start + k);
+                int b = a + 2 * span;
+                int c = b + 2 * span;
+                double bCos = table[2 * k];
+                double bSin = sign * table[2 * k + 1];
+                double cCos = table[2 * (span + k)];
+                double cSin = sign * table[2 * (span + k) + 1];
+                double bReal = data[b] * bCos - data[b + 1] * bSin;
+                double bImaginary = data[b] * bSin + data[b + 1] * bCos;
+                double cReal = data[c] * cCos - data[c + 1] * cSin;
+                double cImaginary = data[c] * cSin + data[c + 1] * cCos;
+
+                double sumReal = bReal + cReal;
+                double sumImaginary = bImaginary + cImaginary;
+                double midReal = data[a] - 0.5 * sumReal;
+                double midImaginary = data[a + 1] - 0.5 * sumImaginary;
+                double rotatedReal = -sin60 * (bImaginary - cImaginary);
+                double rotatedImaginary = sin60 * (bReal - cReal);
+
+                data[a] += sumReal;
+                data[a + 1] += sumImaginary;
+                data[b] = midReal + rotatedReal;
+                data[b + 1] = midImaginary + rotatedImaginary;
+                data[c] = midReal - rotatedReal;
+                data[c + 1] = midImaginary - rotatedImaginary;
+            }
+        }
+    }
+
+    private void radix4(double[] data, int span, double[] table, double sign) {
+        for (int start = 0; start < size; start += 4 * span) {
+            for (int k = 0; k < span; k++) {
+                int a = 2 * (start + k);
+                int b = a + 2 * span;
+                int c = b + 2 * span;
+                int d = c + 2 * span;
+                double bCos = table[2 * k];
+                double bSin = sign * table[2 * k + 1];
+                double cCos = table[2 * (span + k)];
+                double cSin = sign * table[2 * (span + k) + 1];
+                double dCos = table[2 * (2 * span + k)];
+                double dSin = sign * table[2 * (2 * span + k) + 1];
+                double bReal = data[b] * bCos - data[b + 1] * bSin;
+                double bImaginary = data[b] * bSin + data[b + 1] * bCos;
+                double cReal = data[c] * cCos - data[c + 1] * cSin;
+                double cImaginary = data[c] * cSin + data[c + 1] * cCos;
+                double dReal = data[d] * dCos - data[d + 1] * dSin;
+                double dImaginary = data[d] * dSin + data[d + 1] * dCos;
+
+                double evenSumReal = data[a] + cReal;
+                double evenSumImaginary = data[a + 1] + cImaginary;
+                double evenDifferenceReal = data[a] - cReal;
+                double evenDifferenceImaginary = data[a + 1] - cImaginary;
+                double oddSumReal = bReal + dReal;
+                double oddSumImaginary = bImaginary + dImaginary;
+                // (b - d) times the quarter turn sign * i
+                double oddRotatedReal = -sign * (bImaginary - dImaginary);
+                double oddRotatedImaginary = sign * (bReal - dReal);
+
+                data[a] = evenSumReal + oddSumReal;
+                data[a + 1] = evenSumImaginary + oddSumImaginary;
+                data[b] = evenDifferenceReal + oddRotatedReal;
+                data[b + 1] = evenDifferenceImaginary + oddRotatedImaginary;
+                data[c] = evenSumReal - oddSumReal;
+                data[c + 1] = evenSumImaginary - oddSumImaginary;
+                data[d] = evenDifferenceReal - oddRotatedReal;
+                data[d + 1] = evenDifferenceImaginary - oddRotatedImaginary;
+            }
+        }
+    }
+
+    private void radix5(double[] data, int span, double[] table, double sign) {
+        double sin72 = sign * SIN_72;
+        double sin144 = sign * SIN_144;
+        for (int start = 0; start < size; start += 5 * span) {
+            for (int k = 0; k < span; k++) {
+                int a = 2 * (start + k);
+                int b = a + 2 * span;
+                int c = b + 2 * span;
+                int d = c + 2 * span;
+                int e = d + 2 * span;
+                double bCos = table[2 * k];
+                double bSin = sign * table[2 * k + 1];
+                double cCos = table[2 * (span + k)];
+                double cSin = sign * table[2 * (span + k) + 1];
+                double dCos = table[2 * (2 * span + k)];
+                double dSin = sign * table[2 * (2 * span + k) + 1];
+                double eCos = table[2 * (3 * span + k)];
+                double eSin = sign * table[2 * (3 * span + k) + 1];
+                double bReal = data[b] * bCos - data[b + 1] * bSin;
+                double bImaginary = data[b] * bSin + data[b + 1] * bCos;
+                double cReal = data[c] * cCos - data[c + 1] * cSin;
+                double cImaginary = data[c] * cSin + data[c + 1] * cCos;
+                double dReal = data[d] * dCos - data[d + 1] * dSin;
+                double dImaginary = data[d] * dSin + data[d + 1] * dCos;
+                double eReal = data[e] * eCos - data[e + 1] * eSin;
+                double eImaginary = data[e] * eSin + data[e + 1] * eCos;
+
+                double outerSumReal = bReal + eReal;
+                double outerSumImaginary = bImaginary + eImaginary;
+                double innerSumReal = cReal + dReal;
+                double innerSumImaginary = cImaginary + dImaginary;
+                double outerDifferenceReal = bReal - eReal;
+                double outerDifferenceImaginary = bImaginary - eImaginary;
+                double innerDifferenceReal = cReal - dReal;
+                double innerDifferenceImaginary = cImaginary - dImaginary;
+
+                double firstReal = data[a] + COS_72 * outerSumReal + COS_144 * innerSumReal;
+                double firstImaginary = data[a + 1] + COS_72 * outerSumImaginary + COS_144 * innerSumImaginary;
+                double secondReal = data[a] + COS_144 * outerSumReal + COS_72 * innerSumReal;
+                double secondImaginary = data[a + 1] + COS_144 * outerSumImaginary + COS_72 * innerSumImaginary;
+                // Imaginary parts of the odd terms, multiplied by i below
+                double firstOddReal = sin72 * outerDifferenceReal + sin144 * innerDifferenceReal;
+                double firstOddImaginary = sin72 * outerDifferenceImaginary + sin144 * innerDifferenceImaginary;
+                double secondOddReal = sin144 * outerDifferenceReal - sin72 * innerDifferenceReal;
+                double secondOddImaginary = sin144 * outerDifferenceImaginary - sin72 * innerDifferenceImaginary;
+
+                data[a] += outerSumReal + innerSumReal;
+                data[a + 1] += outerSumImaginary + innerSumImaginary;
+                data[b] = firstReal - firstOddImaginary;
+                data[b + 1] = firstImaginary + firstOddReal;
+                data[e] = firstReal + firstOddImaginary;
+                data[e + 1] = firstImaginary - firstOddReal;
+                data[c] = secondReal - secondOddImaginary;
+                data[c + 1] = secondImaginary + secondOddReal;
+                data[d] = secondReal + secondOddImaginary;
+                data[d + 1] = secondImaginary - secondOddReal;
+            }
+        }
+    }
+
+    /**
+     * Stage radices in the order they are applied: radix-4 while at least 4 twos remain, then 2, 3 and 5.
+     */
+    private static int[] factor(int size) {
+        List<Integer> radices = new ArrayList<>();
+        int remaining = size;
+        while (remaining % 4 == 0) {
+            radices.add(4);
+            remaining /= 4;
+        }
+        for (int prime : PRIMES) {
+            while (remaining % prime == 0) {
+                radices.add(prime);
+                remaining /= prime;
+            }
+        }
+        return radices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Source index for each position after the permutation. Position {@code p} with digits {@code d_s} (stage
+     * {@code s} weighing the product of the earlier radices) reads sample
+     * {@code d_last + r_last * (... + r_1 * d_0)}.
+     */
+    private static int[] digitReversal(int size, int[] radices) {
+        int[] source = new int[size];
+        for (int position = 0; position < size; position++) {
+            int rest = position;
+            int index = 0;
+            for (int radix : radices) {
+                index = index * radix + rest % radix;
+                rest /= radix;
+            }
+            source[position] = index;
+        }
+        return source;
+    }
+
+    private static int[] computeCycles(int[] source) {
+        boolean[] visited = new boolean[source.length];
+        List<Integer> flattened = new ArrayList<>();
+        for (int first = 0; first < source.length; first++) {
+            if (visited[first] || source[first] == first) {
+                continue;
+            }
+            int lengthIndex = flattened.size();
+            flattened.add(0);
+            int length = 0;
+            for (int position = first; !visited[position]; position = source[position]) {
+                visited[position] = true;
+                flattened.add(position);
+                length++;
+            }
+            flattened.set(lengthIndex, length);
+        }
+        return flattened.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
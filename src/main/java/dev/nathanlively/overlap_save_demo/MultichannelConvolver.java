@@ -0,0 +1,153 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Overlap-save convolution of N input channels through an N-in by M-out kernel matrix, such as a true-stereo
+ * (2x2) impulse response. Each kernel is transformed once at construction and each input block is transformed
+ * once per block, then reused for every output channel. Output {@code o} is the sum over inputs {@code i} of
+ * input {@code i} convolved with {@code kernels[o][i]}. All-zero kernels mark unused paths and are skipped.
+ * <p>
+ * Instances are immutable and safe to use from several threads at once.
+ */
+public class MultichannelConvolver {
+    private final int inputCount;
+    private final int outputCount;
+    private final int kernelLength;
+    private final int fftSize;
+    private final double[][][] kernelTransforms;
+    private final boolean[][] activePaths;
+
+    /**
+     * @param kernels kernel matrix indexed as {@code kernels[output][input]}
+     */
+    public MultichannelConvolver(double[][][] kernels) {
+        this(kernels, PreparedKernel.defaultFftSize(longestKernel(kernels)));
+    }
+
+    public MultichannelConvolver(double[][][] kernels, int fftSize) {
+        this.outputCount = kernels.length;
+        this.inputCount = kernels[0].length;
+        this.kernelLength = longestKernel(kernels);
+        if (fftSize < kernelLength || !RealFftEngine.isSupportedSize(fftSize)) {
+            throw new IllegalArgumentException(
+                    "FFT size must be a supported real FFT size no smaller than the kernels");
+        }
+        this.fftSize = fftSize;
+        this.kernelTransforms = new double[outputCount][inputCount][];
+        this.activePaths = new boolean[outputCount][inputCount];
+
+        for (int output = 0; output < outputCount; output++) {
+            for (int input = 0; input < inputCount; input++) {
+                double[] kernel = kernels[output][input];
+                kernelTransforms[output][input] = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+                activePaths[output][input] = !isSilent(kernel);
+            }
+        }
+    }
+
+    /**
+     * Convolves {@code inputs[input]} (all of the same length) and returns {@code outputs[output]}, each
+     * {@code signalLength + kernelLength - 1} samples long.
+     */
+    public double[][] with(double[][] inputs) {
+        Objects.requireNonNull(inputs, "inputs cannot be null");
+        if (inputs.length != inputCount) {
+            throw new IllegalArgumentException("Expected " + inputCount + " input channels but got " + inputs.length);
+        }
+        int signalLength = inputs[0].length;
+        for (double[] input : inputs) {
+            if (input.length != signalLength) {
+                throw new IllegalArgumentException("Input channels must have the same length");
+            }
+        }
+        if (signalLength == 0) {
+            throw new NoDataException();
+        }
+
+        int blockSize = fftSize - kernelLength + 1;
+        int blockStartIndex = kernelLength - 1;
+        int resultLength = signalLength + kernelLength - 1;
+        RealFftEngine fft = RealFftEngine.forSize(fftSize);
+
+        double[][] inputSpectra = new double[inputCount][fft.bufferLength()];
+        double[] accumulator = new double[fft.bufferLength()];
+        double[][] outputs = new double[outputCount][resultLength];
+
+        int totalBlocks = OverlapSaveAdapter.blockCount(resultLength, blockSize);
+        for (int blockIndex = 0; blockIndex < totalBlocks; blockIndex++) {
+            int nextBlockStartIndex = blockIndex * blockSize;
+
+            // One forward transform per input channel, shared by every output
+            for (int input = 0; input < inputCount; input++) {
+                OverlapSaveAdapter.extractSignalBlock(inputs[input], nextBlockStartIndex - blockStartIndex, fftSize,
+                        inputSpectra[input]);
+                fft.forward(inputSpectra[input]);
+            }
+
+            int validLength = Math.min(blockSize, resultLength - nextBlockStartIndex);
+            for (int output = 0; output < outputCount; output++) {
+                Arrays.fill(accumulator, 0.0);
+                for (int input = 0; input < inputCount; input++) {
+                    if (activePaths[output][input]) {
+                        SignalTransformer.multiplyAccumulateInterleaved(inputSpectra[input],
+                                kernelTransforms[output][input], accumulator);
+                    }
+                }
+                fft.inverse(accumulator);
+                System.arraycopy(accumulator, blockStartIndex, outputs[output], nextBlockStartIndex, validLength);
+            }
+        }
+
+        return outputs;
+    }
+
+    public WavFileReader.MultiChannelWavFile with(WavFileReader.MultiChannelWavFile wavFile) {
+        return new WavFileReader.MultiChannelWavFile(wavFile.sampleRate(), with(wavFile.channels()));
+    }
+
+    public int inputCount() {
+        return inputCount;
+    }
+
+    public int outputCount() {
+        return outputCount;
+    }
+
+    public int fftSize() {
+        return fftSize;
+    }
+
+    private static int longestKernel(double[][][] kernels) {
+        Objects.requireNonNull(kernels, "kernels cannot be null");
+        if (kernels.length == 0 || kernels[0].length == 0) {
+            throw new NoDataException();
+        }
+        int longest = 0;
+        for (double[][] row : kernels) {
+            if (row.length != kernels[0].length) {
+                throw new IllegalArgumentException("Every output must have a kernel for each input");
+            }
+            for (double[] kernel : row) {
+                Objects.requireNonNull(kernel, "kernel cannot be null");
+                longest = Math.max(longest, kernel.length);
+            }
+        }
+        if (longest == 0) {
+            throw new NoDataException();
+        }
+        return longest;
+    }
+
+    private static boolean isSilent(double[] kernel) {
+        for (double tap : kernel) {
+            if (tap != 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
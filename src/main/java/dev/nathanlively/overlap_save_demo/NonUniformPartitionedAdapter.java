@@ -0,0 +1,38 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Arrays;
+
+public class NonUniformPartitionedAdapter implements Convolution {
+    private final int headLength;
+    private final int maxBlockSize;
+
+    public NonUniformPartitionedAdapter() {
+        this(NonUniformPartitionedConvolver.DEFAULT_HEAD_LENGTH, NonUniformPartitionedConvolver.DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    public NonUniformPartitionedAdapter(int headLength, int maxBlockSize) {
+        this.headLength = headLength;
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    @Override
+    public double[] with(double[] signal, double[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+
+        double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
+
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        NonUniformPartitionedConvolver convolver = new NonUniformPartitionedConvolver(kernel, headLength, maxBlockSize);
+
+        // No latency to compensate; trailing silence flushes the kernel tail
+        System.arraycopy(signal, 0, output, outputOffset, signal.length);
+        Arrays.fill(output, outputOffset + signal.length, outputOffset + resultLength, 0.0);
+        convolver.process(output, outputOffset, resultLength, output);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Zero-latency non-uniformly partitioned convolver. The first {@code headLength} kernel taps are applied in the
+ * time domain with the {@link VectorApiAdapter} direct-form engine, so every output sample is available as soon
+ * as its input arrives. The rest of the kernel is split into segments handled by
+ * {@link UniformPartitionedConvolver}s whose block size doubles from one segment to the next, up to
+ * {@code maxBlockSize}.
+ * <p>
+ * A segment with block size {@code B} starting at kernel offset {@code o} has {@code B} samples of latency,
+ * which is hidden because {@code o >= B}. The remaining {@code o - B} samples are passed to the segment as an
+ * output delay, so its kernel holds only the segment's own taps and no partitions of leading zeros.
+ */
+public class NonUniformPartitionedConvolver {
+    static final int DEFAULT_HEAD_LENGTH = 64;
+    static final int DEFAULT_MAX_BLOCK_SIZE = 8192;
+
+    private final int headLength;
+    private final double[] reversedHead;
+    private final List<UniformPartitionedConvolver> segments = new ArrayList<>();
+
+    // First headLength-1 samples hold the input history, the rest the current chunk
+    private final double[] headHistory;
+    private final double[] segmentOutput;
+    private final double[] tailSum;
+
+    public NonUniformPartitionedConvolver(double[] kernel) {
+        this(kernel, DEFAULT_HEAD_LENGTH, DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    public NonUniformPartitionedConvolver(double[] kernel, int headLength, int maxBlockSize) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+        if (headLength < 1 || !RealFftEngine.isSupportedSize(2 * headLength) || maxBlockSize < headLength) {
+            throw new IllegalArgumentException(
+                    "Head length must have no prime factors above 5 and be no larger than the maximum block size");
+        }
+
+        this.headLength = Math.min(headLength, kernel.length);
+        this.reversedHead = new VectorApiAdapter().reverseKernel(Arrays.copyOf(kernel, this.headLength));
+
+        int offset = headLength;
+        int blockSize = headLength;
+        while (offset < kernel.length) {
+            boolean lastSegment = blockSize >= maxBlockSize;
+            int segmentLength = lastSegment
+                    ? kernel.length - offset
+                    : Math.min(2 * blockSize, kernel.length - offset);
+
+            double[] segment = Arrays.copyOfRange(kernel, offset, offset + segmentLength);
+            segments.add(new UniformPartitionedConvolver(segment, blockSize, offset - blockSize));
+
+            offset += segmentLength;
+            blockSize *= 2;
+        }
+
+        int chunkCapacity = headLength;
+        this.headHistory = new double[this.headLength - 1 + chunkCapacity];
+        this.segmentOutput = new double[headHistory.length];
+        this.tailSum = new double[headHistory.length];
+    }
+
+    /**
+     * Pushes {@code length} samples from {@code input} and writes the same number of output samples to
+     * {@code output} with no added latency, both starting at {@code offset}. The two arrays may be the same.
+     */
+    public void process(double[] input, int offset, int length, double[] output) {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        Objects.checkFromIndexSize(offset, length, output.length);
+
+        int chunkStart = headLength - 1;
+        int chunkCapacity = headHistory.length - chunkStart;
+        int processed = 0;
+        while (processed < length) {
+            int count = Math.min(length - processed, chunkCapacity);
+            int position = offset + processed;
+            System.arraycopy(input, position, headHistory, chunkStart, count);
+
+            // Tail segments read the chunk from the history buffer, so the caller's input may be overwritten below
+            Arrays.fill(tailSum, chunkStart, chunkStart + count, 0.0);
+            for (UniformPartitionedConvolver segment : segments) {
+                segment.process(headHistory, chunkStart, count, segmentOutput);
+                for (int i = chunkStart; i < chunkStart + count; i++) {
+                    tailSum[i] += segmentOutput[i];
+                }
+            }
+
+            VectorApiAdapter.convolveValid(headHistory, reversedHead, count, output, position);
+            for (int i = 0; i < count; i++) {
+                output[position + i] += tailSum[chunkStart + i];
+            }
+
+            System.arraycopy(headHistory, count, headHistory, 0, headLength - 1);
+            processed += count;
+        }
+    }
+
+    public void process(double[] input, double[] output) {
+        process(input, 0, input.length, output);
+    }
+
+    public void reset() {
+        Arrays.fill(headHistory, 0.0);
+        segments.forEach(UniformPartitionedConvolver::reset);
+    }
+
+    public int latency() {
+        return 0;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    int partitionCount() {
+        return segments.stream().mapToInt(UniformPartitionedConvolver::partitionCount).sum();
+    }
+}
@@ -0,0 +1,33 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Objects;
+
+/**
+ * Counterpart of {@link Convolution} for signals held in {@link OffHeapSignal}s, indexed by {@code long} so
+ * signals and results may exceed 2^31 samples. Kernels stay on the heap since even long impulse responses are
+ * short next to the signals this is for.
+ */
+public interface OffHeapConvolution {
+
+    /**
+     * Writes the {@code signal.length() + kernel.length - 1} samples of the full convolution into the start of
+     * {@code output}, which may be file-backed.
+     */
+    void with(OffHeapSignal signal, double[] kernel, OffHeapSignal output);
+
+    /**
+     * Convolves into a new native-memory signal, which the caller must close.
+     */
+    default OffHeapSignal with(OffHeapSignal signal, double[] kernel) {
+        Objects.requireNonNull(signal, "signal cannot be null");
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        OffHeapSignal output = OffHeapSignal.allocate(signal.length() + Math.max(0, kernel.length - 1));
+        try {
+            with(signal, kernel, output);
+            return output;
+        } catch (RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A signal of {@code double} samples stored outside the Java heap, indexed by {@code long}, so it is not limited to
+ * 2^31 samples and never has to be copied by the garbage collector. Memory comes either from native memory or
+ * from a memory-mapped file of raw native-order doubles, which lets the operating system page a render of many
+ * hours in and out as it is read and written.
+ * <p>
+ * Each signal owns a shared {@link Arena}, so it may be read from several threads. Closing it frees the memory or
+ * unmaps the file, after which any access fails.
+ */
+public final class OffHeapSignal implements AutoCloseable {
+    private static final ValueLayout.OfDouble SAMPLE = ValueLayout.JAVA_DOUBLE;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long length;
+
+    private OffHeapSignal(Arena arena, MemorySegment segment, long length) {
+        this.arena = arena;
+        this.segment = segment;
+        this.length = length;
+    }
+
+    /**
+     * Zero-filled signal of {@code length} samples in native memory.
+     */
+    public static OffHeapSignal allocate(long length) {
+        checkLength(length);
+        Arena arena = Arena.ofShared();
+        // Arena memory starts zeroed
+        MemorySegment segment = arena.allocate(Math.max(1, length) * SAMPLE.byteSize(), SAMPLE.byteAlignment());
+        return new OffHeapSignal(arena, segment, length);
+    }
+
+    public static OffHeapSignal of(double[] samples) {
+        Objects.requireNonNull(samples, "samples cannot be null");
+        OffHeapSignal signal = allocate(samples.length);
+        signal.write(0, samples, 0, samples.length);
+        return signal;
+    }
+
+    /**
+     * Creates or truncates {@code path} and maps it as a zero-filled signal of {@code length} samples. Samples
+     * written to the signal end up in the file.
+     */
+    public static OffHeapSignal createMapped(Path path, long length) {
+        Objects.requireNonNull(path, "path cannot be null");
+        checkLength(length);
+        return map(path, length, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Maps an existing file written by {@link #createMapped(Path, long)} for reading and writing.
+     */
+    public static OffHeapSignal openMapped(Path path) {
+        Objects.requireNonNull(path, "path cannot be null");
+        return map(path, -1, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static OffHeapSignal map(Path path, long length, StandardOpenOption... options) {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long samples = length < 0 ? channel.size() / SAMPLE.byteSize() : length;
+            // The mapping stays valid after the channel is closed, until the arena is
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, samples * SAMPLE.byteSize(), arena);
+            return new OffHeapSignal(arena, segment, samples);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw new RuntimeException("Failed to map signal file: " + path, e);
+        }
+    }
+
+    private static void checkLength(long length) {
+        if (length < 0 || length > Long.MAX_VALUE / SAMPLE.byteSize()) {
+            throw new IllegalArgumentException("Invalid signal length: " + length);
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public double get(long index) {
+        Objects.checkIndex(index, length);
+        return segment.getAtIndex(SAMPLE, index);
+    }
+
+    public void set(long index, double value) {
+        Objects.checkIndex(index, length);
+        segment.setAtIndex(SAMPLE, index, value);
+    }
+
+    /**
+     * Copies {@code count} samples starting at {@code position} into {@code destination[offset...]}.
+     */
+    public void read(long position, double[] destination, int offset, int count) {
+        Objects.checkFromIndexSize(position, count, length);
+        MemorySegment.copy(segment, SAMPLE, position * SAMPLE.byteSize(), destination, offset, count);
+    }
+
+    /**
+     * Copies {@code count} samples from {@code source[offset...]} into this signal starting at {@code position}.
+     */
+    public void write(long position, double[] source, int offset, int count) {
+        Objects.checkFromIndexSize(position, count, length);
+        MemorySegment.copy(source, offset, segment, SAMPLE, position * SAMPLE.byteSize(), count);
+    }
+
+    /**
+     * Copies the whole signal onto the heap, for signals short enough to fit in an array.
+     */
+    public double[] toArray() {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Signal of " + length + " samples is too long for an array");
+        }
+        double[] samples = new double[(int) length];
+        read(0, samples, 0, samples.length);
+        return samples;
+    }
+
+    /**
+     * The backing memory, {@code length() * 8} bytes of native-order doubles.
+     */
+    public MemorySegment segment() {
+        return segment.asSlice(0, length * SAMPLE.byteSize());
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -1,80 +1,291 @@
 package dev.nathanlively.overlap_save_demo;
 
 import org.apache.arrow.memory.util.CommonUtil;
-import org.apache.commons.numbers.complex.Complex;
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+public class OverlapSaveAdapter implements Convolution, OffHeapConvolution {
+    // One block buffer per thread, replaced only when the FFT size changes
+    private static final ThreadLocal<double[]> WORKER_BLOCK = ThreadLocal.withInitial(() -> new double[0]);
+    static final double NO_SILENCE_SKIPPING = -1;
+
+    private final double silenceThreshold;
+    private final LongAdder skippedBlocks = new LongAdder();
+
+    public OverlapSaveAdapter() {
+        this.silenceThreshold = NO_SILENCE_SKIPPING;
+    }
+
+    /**
+     * Skips the transforms for blocks whose input, including the {@code kernelLength - 1} samples of history
+     * each block reads, is silent and writes zeros instead. That history means a block is only skipped once the
+     * kernel tail from the last sound has left the output.
+     *
+     * @param silenceThreshold largest absolute sample value treated as silence. With 0 only digital silence is
+     *                         skipped and the output is unchanged; above 0 a skipped output sample differs by at
+     *                         most {@code silenceThreshold} times the sum of the absolute kernel values.
+     */
+    public OverlapSaveAdapter(double silenceThreshold) {
+        if (!(silenceThreshold >= 0) || Double.isInfinite(silenceThreshold)) {
+            throw new IllegalArgumentException("Silence threshold must be finite and non-negative: "
+                                               + silenceThreshold);
+        }
+        this.silenceThreshold = silenceThreshold;
+    }
 
-public class OverlapSaveAdapter implements Convolution {
     @Override
     public double[] with(double[] signal, double[] kernel) {
         SignalTransformer.validate(signal, kernel);
+        double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
 
-        int kernelLength = kernel.length;
-        int fftSize = calculateOptimalFftSize(signal.length, kernelLength);
-        int blockSize = fftSize - kernelLength + 1;
-        int blockStartIndex = kernelLength - 1;
-        int resultLength = signal.length + kernelLength - 1;
+    /**
+     * Blocks are read from the signal by index, with zeros outside it, and written straight into {@code output},
+     * so nothing but one block buffer is allocated.
+     */
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        int fftSize = calculateOptimalFftSize(signal.length, kernel.length);
+
+        // Kernel FFT (zero-padded to FFT size), computed once per distinct kernel and size
+        double[] kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+        double[] block = new double[RealFftEngine.forSize(fftSize).bufferLength()];
+
+        int blockCount = blockCount(resultLength, fftSize - kernel.length + 1);
+        skippedBlocks.add(convolveBlockRange(signal, kernelTransform, kernel.length, fftSize, 0, blockCount,
+                block, output, outputOffset, silenceThreshold));
+    }
+
+    /**
+     * Blocks skipped as silent since this adapter was created, across all calls and threads. Always 0 unless a
+     * silence threshold was given.
+     */
+    public long skippedBlocks() {
+        return skippedBlocks.sum();
+    }
 
-        // Pre-compute kernel FFT (zero-padded to FFT size)
-        double[] paddedKernel = SignalTransformer.pad(kernel, fftSize);
-        Complex[] kernelTransform = SignalTransformer.fft(paddedKernel);
+    /**
+     * Overlap-save between off-heap signals. Each block is copied straight from {@code signal} into the FFT
+     * buffer and its valid samples straight back out to {@code output}, so the heap only holds one block and
+     * the kernel transform however long the signal is.
+     */
+    @Override
+    public void with(OffHeapSignal signal, double[] kernel, OffHeapSignal output) {
+        Objects.requireNonNull(signal, "signal cannot be null");
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        Objects.requireNonNull(output, "output cannot be null");
+        if (signal.length() == 0 || kernel.length == 0) {
+            throw new NoDataException();
+        }
+        long resultLength = signal.length() + kernel.length - 1;
+        if (output.length() < resultLength) {
+            throw new IllegalArgumentException("Output holds " + output.length() + " samples but the result needs "
+                                               + resultLength);
+        }
 
-        // Pre-allocate a result array
-        double[] result = new double[resultLength];
+        // Block count stops mattering long before 2^30 samples, so longer signals size the FFT like that
+        int sizingLength = (int) Math.min(signal.length(), 1 << 30);
+        int fftSize = calculateOptimalFftSize(sizingLength, kernel.length);
+        double[] kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+        double[] block = new double[RealFftEngine.forSize(fftSize).bufferLength()];
 
-        // Create a padded signal with initial zeros for overlap
-        double[] paddedSignal = SignalTransformer.pad(
-                signal,
-                blockStartIndex, // startPaddingAmount
-                resultLength - signal.length - blockStartIndex  // endPaddingAmount
-        );
+        skippedBlocks.add(convolveSegment(signal, kernelTransform, kernel.length, fftSize, block, output,
+                resultLength, silenceThreshold));
+    }
 
-        // Process blocks
-        int totalBlocks = (signal.length + blockSize - 1) / blockSize;
-        for (int blockIndex = 0; blockIndex < totalBlocks; blockIndex++) {
-            int nextBlockStartIndex = blockIndex * blockSize;
+    /**
+     * Off-heap form of {@link #convolveSignal(double[], double[], int, int, double[], double[])}, writing the
+     * first {@code resultLength} samples of {@code output} and returning the number of silent blocks skipped.
+     */
+    static long convolveSegment(OffHeapSignal signal, double[] kernelTransform, int kernelLength, int fftSize,
+                                double[] block, OffHeapSignal output, long resultLength, double silenceThreshold) {
+        int blockSize = fftSize - kernelLength + 1;
+        long signalLength = signal.length();
+        RealFftEngine fft = RealFftEngine.forSize(fftSize);
+        long skipped = 0;
 
-            // Extract block with proper overlap handling
-            double[] block = extractSignalBlock(paddedSignal, nextBlockStartIndex, fftSize);
+        for (long outputStart = 0; outputStart < resultLength; outputStart += blockSize) {
+            long signalStart = outputStart - (kernelLength - 1);
+            int leading = (int) Math.max(0, -signalStart);
+            int copyLength = (int) Math.max(0, Math.min(fftSize, signalLength - signalStart) - leading);
 
-            // Convolve block in a frequency domain
-            Complex[] blockTransform = SignalTransformer.fft(block);
-            Complex[] convolutionTransform = SignalTransformer.multiply(blockTransform, kernelTransform);
-            double[] blockResult = SignalTransformer.ifft(convolutionTransform);
+            Arrays.fill(block, 0, leading, 0.0);
+            signal.read(signalStart + leading, block, leading, copyLength);
+            Arrays.fill(block, leading + copyLength, block.length, 0.0);
 
-            // Extract valid portion (discard first kernelLength-1 samples due to aliasing)
-            int validLength = Math.min(blockSize, resultLength - nextBlockStartIndex);
-
-            if (validLength > 0) {
-                System.arraycopy(
-                        blockResult,  // Source object
-                        blockStartIndex,  // Source index
-                        result,  // Destination object
-                        nextBlockStartIndex,  // Destination index
-                        validLength);  // Source length to copy
+            if (isSilent(block, leading, leading + copyLength, silenceThreshold)) {
+                // The output region of a silent block is zero, so the zeroed buffer is written back untransformed
+                Arrays.fill(block, leading, leading + copyLength, 0.0);
+                skipped++;
+            } else {
+                fft.forward(block);
+                SignalTransformer.multiplyInterleaved(block, kernelTransform, block);
+                fft.inverse(block);
+            }
+
+            output.write(outputStart, block, kernelLength - 1, (int) Math.min(blockSize, resultLength - outputStart));
+        }
+        return skipped;
+    }
+
+    /**
+     * Gives each signal the FFT size {@link #with(double[], double[])} would choose for it, so short clips are not
+     * transformed at the size a long one needs. The kernel is transformed once per distinct size, then every
+     * signal is convolved in one parallel pass, as in {@link PreparedKernel#withAll(List)}, skipping silent blocks
+     * like {@link #with(double[], double[])} does. Results are in input order.
+     */
+    @Override
+    public List<double[]> withAll(List<double[]> signals, double[] kernel) {
+        Objects.requireNonNull(signals, "signals cannot be null");
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+
+        Map<Integer, PreparedKernel> kernelsByFftSize = new HashMap<>();
+        PreparedKernel[] kernels = new PreparedKernel[signals.size()];
+        for (int i = 0; i < kernels.length; i++) {
+            double[] signal = Objects.requireNonNull(signals.get(i), "signal cannot be null");
+            if (signal.length == 0) {
+                throw new NoDataException();
             }
+            kernels[i] = kernelsByFftSize.computeIfAbsent(calculateOptimalFftSize(signal.length, kernel.length),
+                    fftSize -> Convolution.prepare(kernel, fftSize));
         }
 
+        // One pass over every signal, so clips of different sizes share the pool without a barrier per size
+        double[][] results = new double[kernels.length][];
+        IntStream.range(0, results.length).parallel().forEach(i -> {
+            double[] signal = signals.get(i);
+            results[i] = new double[signal.length + kernel.length - 1];
+            skippedBlocks.add(kernels[i].convolveInto(signal, results[i], silenceThreshold));
+        });
+        return List.of(results);
+    }
+
+    /**
+     * Block loop shared with {@link PreparedKernel}. The kernel transform is only read, so it may be shared
+     * between threads.
+     */
+    static double[] convolveBlocks(double[] signal, double[] kernelTransform, int kernelLength, int fftSize) {
+        double[] result = new double[signal.length + kernelLength - 1];
+        convolveSignal(signal, kernelTransform, kernelLength, fftSize, new double[kernelTransform.length], result);
         return result;
     }
 
-    private double[] extractSignalBlock(double[] paddedSignal, int nextBlockStartIndex, int fftSize) {
-        double[] block = new double[fftSize];  // always return FFT size
-        int copyLength = Math.min(fftSize, paddedSignal.length - nextBlockStartIndex);  // handle the end of the signal where we might have less than FFT size
+    /**
+     * Same blocks as {@link #convolveBlocks(double[], double[], int, int)}, but writes into caller-supplied
+     * buffers, so the only allocation is the caller's result.
+     */
+    static void convolveSignal(double[] signal, double[] kernelTransform, int kernelLength, int fftSize,
+                               double[] block, double[] result) {
+        convolveBlockRange(signal, kernelTransform, kernelLength, fftSize,
+                0, blockCount(result.length, fftSize - kernelLength + 1), block, result, 0, NO_SILENCE_SKIPPING);
+    }
 
-        if (copyLength > 0) {
-            System.arraycopy(
-                    paddedSignal,  // Source object
-                    nextBlockStartIndex,  // Source index
-                    block,  // Destination object
-                    0,  // Destination index
-                    copyLength  // Source length
-            );
+    /**
+     * Block buffer of the given length owned by the calling thread, for work spread across a thread pool.
+     */
+    static double[] workerBlock(int length) {
+        double[] block = WORKER_BLOCK.get();
+        if (block.length != length) {
+            block = new double[length];
+            WORKER_BLOCK.set(block);
         }
-
         return block;
     }
 
+    static int blockCount(int resultLength, int blockSize) {
+        return (resultLength + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Convolves blocks {@code [firstBlock, endBlock)} into their own region of {@code output} from
+     * {@code outputOffset}. Blocks only read the signal and kernel transform, so disjoint ranges can run
+     * concurrently with separate {@code block} buffers.
+     * <p>
+     * Blocks whose input is within {@code silenceThreshold} of zero are filled with zeros instead of being
+     * transformed, and the number skipped is returned. A negative threshold skips nothing.
+     */
+    static int convolveBlockRange(double[] signal, double[] kernelTransform, int kernelLength, int fftSize,
+                                  int firstBlock, int endBlock, double[] block, double[] output, int outputOffset,
+                                  double silenceThreshold) {
+        int blockSize = fftSize - kernelLength + 1;
+        int resultLength = signal.length + kernelLength - 1;
+        RealFftEngine fft = RealFftEngine.forSize(fftSize);
+        int skipped = 0;
+
+        for (int blockIndex = firstBlock; blockIndex < endBlock; blockIndex++) {
+            int outputStart = blockIndex * blockSize;
+            // The block covers signal[outputStart - (kernelLength - 1), ...), with zeros outside the signal
+            int signalStart = outputStart - (kernelLength - 1);
+            int validLength = Math.min(blockSize, resultLength - outputStart);
+
+            if (isSilent(signal, signalStart, signalStart + fftSize, silenceThreshold)) {
+                Arrays.fill(output, outputOffset + outputStart, outputOffset + outputStart + validLength, 0.0);
+                skipped++;
+                continue;
+            }
+
+            extractSignalBlock(signal, signalStart, fftSize, block);
+
+            // Convolve block in a frequency domain
+            fft.forward(block);
+            SignalTransformer.multiplyInterleaved(block, kernelTransform, block);
+            fft.inverse(block);
+
+            // Extract valid portion (discard first kernelLength-1 samples due to aliasing)
+            System.arraycopy(block, kernelLength - 1, output, outputOffset + outputStart, validLength);
+        }
+        return skipped;
+    }
+
+    /**
+     * Copies {@code signal[signalStart, signalStart + fftSize)} into {@code block}, reading zeros outside the
+     * signal, and zeros the spare spectrum slots.
+     */
+    static void extractSignalBlock(double[] signal, int signalStart, int fftSize, double[] block) {
+        int leading = Math.max(0, -signalStart);
+        int copyLength = Math.max(0, Math.min(signal.length, signalStart + fftSize) - (signalStart + leading));
+
+        Arrays.fill(block, 0, leading, 0.0);
+        System.arraycopy(signal, signalStart + leading, block, leading, copyLength);
+        Arrays.fill(block, leading + copyLength, block.length, 0.0);
+    }
+
+    // Exits at the first loud sample, so checking a block that is not silent costs almost nothing
+    private static boolean isSilent(double[] samples, int from, int to, double threshold) {
+        if (threshold < 0) {
+            return false;
+        }
+        for (int i = Math.max(0, from); i < Math.min(samples.length, to); i++) {
+            if (Math.abs(samples[i]) > threshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     int calculateOptimalFftSize(int signalLength, int kernelLength) {
+        return calculateOptimalFftSize(signalLength, kernelLength, true);
+    }
+
+    /**
+     * @param smoothSizes whether sizes with factors of 3 and 5 are candidates as well as powers of two
+     */
+    int calculateOptimalFftSize(int signalLength, int kernelLength, boolean smoothSizes) {
         // Minimum size needed for linear convolution without aliasing
         int minSize = 2 * kernelLength - 1;
 
@@ -83,40 +294,51 @@ public class OverlapSaveAdapter implements Convolution {
             minSize = 64;
         }
 
-        // Find the next power of 2 that's at least minSize
-        int optimalSize = CommonUtil.nextPowerOfTwo(minSize);
-
-        // For larger signals, consider efficiency trade-offs
-        // Larger FFT sizes reduce the number of blocks but increase per-block cost
+        // The next power of 2 that's at least minSize bounds the search for short signals
+        int powerOfTwoSize = CommonUtil.nextPowerOfTwo(minSize);
         int totalConvolutionLength = signalLength + kernelLength - 1;
+        int maxSize = powerOfTwoSize;
 
-        // If the signal is much larger than the kernel, try larger FFT sizes
+        // If the signal is much larger than the kernel, larger FFT sizes reduce the number of blocks but
+        // increase per-block cost
         if (signalLength > 10 * kernelLength) {
-            // Calculate efficiency for different FFT sizes
-            int bestSize = optimalSize;
-            double bestEfficiency = calculateEfficiency(totalConvolutionLength, kernelLength, optimalSize);
-
-            // Try powers of 2 up to a reasonable maximum
-            for (int size = optimalSize * 2; size <= Math.min(optimalSize * 4, totalConvolutionLength); size *= 2) {
-                double efficiency = calculateEfficiency(totalConvolutionLength, kernelLength, size);
-                if (efficiency > bestEfficiency) {
-                    bestSize = size;
-                    bestEfficiency = efficiency;
-                } else {
-                    break; // Efficiency is decreasing, stop searching
-                }
-            }
+            maxSize = Math.max(powerOfTwoSize, Math.min(powerOfTwoSize * 4, totalConvolutionLength));
+        }
 
-            return bestSize;
+        int bestSize = powerOfTwoSize;
+        double bestCost = calculateCost(totalConvolutionLength, kernelLength, powerOfTwoSize);
+        for (int size : candidateSizes(minSize, maxSize, smoothSizes)) {
+            double cost = calculateCost(totalConvolutionLength, kernelLength, size);
+            if (cost < bestCost) {
+                bestSize = size;
+                bestCost = cost;
+            }
         }
+        return bestSize;
+    }
 
-        return optimalSize;
+    /**
+     * Supported real FFT sizes in {@code [minSize, maxSize]}: powers of two, and if requested every even size
+     * {@code 2^a * 3^b * 5^c}.
+     */
+    private static List<Integer> candidateSizes(int minSize, int maxSize, boolean smoothSizes) {
+        List<Integer> sizes = new ArrayList<>();
+        int oddFactorLimit = smoothSizes ? maxSize : 1;
+        for (long fives = 1; fives <= oddFactorLimit; fives *= 5) {
+            for (long odd = fives; odd <= oddFactorLimit; odd *= 3) {
+                for (long size = 2 * odd; size <= maxSize; size *= 2) {
+                    if (size >= minSize) {
+                        sizes.add((int) size);
+                    }
+                }
+            }
+        }
+        return sizes;
     }
 
-    private double calculateEfficiency(int totalLength, int kernelLength, int fftSize) {
+    private double calculateCost(int totalLength, int kernelLength, int fftSize) {
         int blockSize = fftSize - kernelLength + 1;
         int numBlocks = (totalLength + blockSize - 1) / blockSize;
-        double operationsPerSample = (numBlocks * fftSize * Math.log(fftSize)) / totalLength;
-        return 1.0 / operationsPerSample; // Higher is better
+        return numBlocks * RealFftEngine.relativeCost(fftSize);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Overlap-save for offline renders with blocks spread across a {@link ForkJoinPool}. Each block reads only the
+ * signal and kernel transform and writes only its own region of the result, so the output is
+ * bit-identical to {@link OverlapSaveAdapter}.
+ */
+public class ParallelOverlapSaveAdapter implements Convolution {
+    static final int DEFAULT_BLOCKS_PER_TASK = 16;
+
+    private final OverlapSaveAdapter overlapSave = new OverlapSaveAdapter();
+    private final ForkJoinPool pool;
+    private final int blocksPerTask;
+
+    public ParallelOverlapSaveAdapter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BLOCKS_PER_TASK);
+    }
+
+    /**
+     * @param blocksPerTask ranges of at most this many blocks are processed serially instead of being split
+     */
+    public ParallelOverlapSaveAdapter(ForkJoinPool pool, int blocksPerTask) {
+        if (blocksPerTask < 1) {
+            throw new IllegalArgumentException("Blocks per task must be positive");
+        }
+        this.pool = pool;
+        this.blocksPerTask = blocksPerTask;
+    }
+
+    @Override
+    public double[] with(double[] signal, double[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+        double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
+
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        int kernelLength = kernel.length;
+        int fftSize = overlapSave.calculateOptimalFftSize(signal.length, kernelLength);
+        int blockSize = fftSize - kernelLength + 1;
+
+        double[] kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+
+        pool.invoke(new BlockRangeTask(signal, kernelTransform, kernelLength, fftSize,
+                0, OverlapSaveAdapter.blockCount(resultLength, blockSize), output, outputOffset));
+    }
+
+    int calculateOptimalFftSize(int signalLength, int kernelLength) {
+        return overlapSave.calculateOptimalFftSize(signalLength, kernelLength);
+    }
+
+    // How many workers can be busy at once: the pool size, or fewer when the blocks split into fewer tasks
+    int parallelism(int blockCount) {
+        return Math.max(1, Math.min(pool.getParallelism(), Math.ceilDiv(blockCount, blocksPerTask)));
+    }
+
+    private final class BlockRangeTask extends RecursiveAction {
+        private final double[] signal;
+        private final double[] kernelTransform;
+        private final int kernelLength;
+        private final int fftSize;
+        private final int firstBlock;
+        private final int endBlock;
+        private final double[] output;
+        private final int outputOffset;
+
+        BlockRangeTask(double[] signal, double[] kernelTransform, int kernelLength, int fftSize,
+                       int firstBlock, int endBlock, double[] output, int outputOffset) {
+            this.signal = signal;
+            this.kernelTransform = kernelTransform;
+            this.kernelLength = kernelLength;
+            this.fftSize = fftSize;
+            this.firstBlock = firstBlock;
+            this.endBlock = endBlock;
+            this.output = output;
+            this.outputOffset = outputOffset;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBlock - firstBlock <= blocksPerTask) {
+                OverlapSaveAdapter.convolveBlockRange(signal, kernelTransform, kernelLength, fftSize,
+                        firstBlock, endBlock, OverlapSaveAdapter.workerBlock(kernelTransform.length),
+                        output, outputOffset, OverlapSaveAdapter.NO_SILENCE_SKIPPING);
+                return;
+            }
+
+            int middle = (firstBlock + endBlock) >>> 1;
+            invokeAll(
+                    new BlockRangeTask(signal, kernelTransform, kernelLength, fftSize, firstBlock, middle,
+                            output, outputOffset),
+                    new BlockRangeTask(signal, kernelTransform, kernelLength, fftSize, middle, endBlock,
+                            output, outputOffset));
+        }
+    }
+}
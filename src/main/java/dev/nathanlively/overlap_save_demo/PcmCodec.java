@@ -0,0 +1,226 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Bulk conversion between interleaved little-endian WAV sample bytes and per-channel {@code double} arrays.
+ * The sample format is resolved once per call, and each channel is converted in chunks. One strided loop moves
+ * the raw integers out of a {@link MemorySegment}, and a second contiguous loop scales them. Byte arrays are
+ * viewed as heap segments, so in-memory buffers and memory-mapped files share the same code.
+ * <p>
+ * PCM samples are scaled by {@code 2^(bits-1) - 1} and clamped on the way out, like {@link WavFileReader} and
+ * {@link WavFileWriter} always have. 8-bit WAV samples are unsigned with an offset of 128. IEEE float samples are
+ * 32 or 64 bits and are not scaled.
+ */
+final class PcmCodec {
+    private static final ValueLayout.OfShort SHORT =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT =
+            ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE =
+            ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // Samples per channel converted per pass, small enough for the integer scratch array to stay in L1
+    private static final int CHUNK_SAMPLES = 1024;
+
+    private PcmCodec() {
+    }
+
+    /**
+     * Deinterleaves {@code frames} frames starting at byte {@code sourceOffset} into
+     * {@code destination[channel][destinationOffset...]}.
+     */
+    static void decode(byte[] source, int sourceOffset, int bitDepth, boolean floatingPoint,
+                       double[][] destination, int destinationOffset, int frames) {
+        int channelCount = destination.length;
+        int bytesPerSample = bytesPerSample(bitDepth, floatingPoint);
+        int frameSize = bytesPerSample * channelCount;
+        Objects.checkFromIndexSize(sourceOffset, frames * frameSize, source.length);
+        MemorySegment segment = MemorySegment.ofArray(source);
+        int[] values = new int[Math.min(frames, CHUNK_SAMPLES)];
+
+        for (int c = 0; c < channelCount; c++) {
+            decodeChannel(segment, sourceOffset + (long) c * bytesPerSample, frameSize, bitDepth, floatingPoint,
+                    destination[c], destinationOffset, frames, values);
+        }
+    }
+
+    /**
+     * Decodes {@code frames} samples of one channel into {@code destination[destinationOffset...]}. The first
+     * sample starts at byte {@code position} of {@code source}, and each following one {@code stride} bytes later.
+     */
+    static void decodeChannel(MemorySegment source, long position, int stride, int bitDepth, boolean floatingPoint,
+                              double[] destination, int destinationOffset, int frames) {
+        decodeChannel(source, position, stride, bitDepth, floatingPoint, destination, destinationOffset, frames,
+                new int[Math.min(frames, CHUNK_SAMPLES)]);
+    }
+
+    /**
+     * Interleaves {@code frames} frames starting at {@code source[channel][sourceOffset]} into
+     * {@code destination} from byte {@code destinationOffset}.
+     */
+    static void encode(double[][] source, int sourceOffset, int bitDepth, boolean floatingPoint,
+                       byte[] destination, int destinationOffset, int frames) {
+        encode(source, sourceOffset, bitDepth, floatingPoint, MemorySegment.ofArray(destination), destinationOffset,
+                frames);
+    }
+
+    /**
+     * Same as {@link #encode(double[][], int, int, boolean, byte[], int, int)}, writing into a segment such as a
+     * direct buffer or a mapped file.
+     */
+    static void encode(double[][] source, int sourceOffset, int bitDepth, boolean floatingPoint,
+                       MemorySegment segment, long destinationOffset, int frames) {
+        int channelCount = source.length;
+        int bytesPerSample = bytesPerSample(bitDepth, floatingPoint);
+        int frameSize = bytesPerSample * channelCount;
+        Objects.checkFromIndexSize(destinationOffset, (long) frames * frameSize, segment.byteSize());
+        double scaleFactor = Math.pow(2, bitDepth - 1) - 1;
+        int maxValue = (int) scaleFactor;
+        int minValue = -maxValue - 1;
+        int[] values = new int[Math.min(frames, CHUNK_SAMPLES)];
+
+        for (int c = 0; c < channelCount; c++) {
+            double[] samples = source[c];
+            Objects.checkFromIndexSize(sourceOffset, frames, samples.length);
+
+            for (int done = 0; done < frames; done += values.length) {
+                int count = Math.min(values.length, frames - done);
+                long position = destinationOffset + (long) done * frameSize + (long) c * bytesPerSample;
+                int start = sourceOffset + done;
+
+                if (floatingPoint) {
+                    encodeFloats(samples, start, count, segment, position, frameSize, bytesPerSample);
+                    continue;
+                }
+                for (int i = 0; i < count; i++) {
+                    values[i] = Math.max(minValue, Math.min(maxValue, (int) (samples[start + i] * scaleFactor)));
+                }
+                scatter(values, count, segment, position, frameSize, bytesPerSample);
+            }
+        }
+    }
+
+    static int bytesPerSample(int bitDepth, boolean floatingPoint) {
+        boolean supported = floatingPoint
+                ? bitDepth == 32 || bitDepth == 64
+                : bitDepth == 8 || bitDepth == 16 || bitDepth == 24 || bitDepth == 32;
+        if (!supported) {
+            throw new IllegalArgumentException("Unsupported " + (floatingPoint ? "float" : "PCM")
+                                               + " bit depth: " + bitDepth);
+        }
+        return bitDepth / 8;
+    }
+
+    private static void decodeChannel(MemorySegment source, long position, int stride, int bitDepth,
+                                      boolean floatingPoint, double[] destination, int destinationOffset, int frames,
+                                      int[] values) {
+        int bytesPerSample = bytesPerSample(bitDepth, floatingPoint);
+        Objects.checkFromIndexSize(destinationOffset, frames, destination.length);
+        if (frames == 0) {
+            return;
+        }
+        Objects.checkFromIndexSize(position, (long) (frames - 1) * stride + bytesPerSample, source.byteSize());
+
+        if (floatingPoint) {
+            decodeFloats(source, position, stride, bytesPerSample, destination, destinationOffset, frames);
+            return;
+        }
+        double scaleFactor = Math.pow(2, bitDepth - 1) - 1;
+        for (int done = 0; done < frames; done += values.length) {
+            int count = Math.min(values.length, frames - done);
+            int start = destinationOffset + done;
+            gather(source, position + (long) done * stride, stride, bytesPerSample, values, count);
+            // A separate pass over contiguous ints lets the JIT vectorize the conversion and division
+            for (int i = 0; i < count; i++) {
+                destination[start + i] = values[i] / scaleFactor;
+            }
+        }
+    }
+
+    private static void decodeFloats(MemorySegment source, long position, int stride, int bytesPerSample,
+                                     double[] destination, int destinationOffset, int frames) {
+        if (bytesPerSample == 4) {
+            for (int i = 0; i < frames; i++, position += stride) {
+                destination[destinationOffset + i] = source.get(FLOAT, position);
+            }
+        } else {
+            for (int i = 0; i < frames; i++, position += stride) {
+                destination[destinationOffset + i] = source.get(DOUBLE, position);
+            }
+        }
+    }
+
+    private static void encodeFloats(double[] samples, int start, int count, MemorySegment destination,
+                                     long position, int stride, int bytesPerSample) {
+        if (bytesPerSample == 4) {
+            for (int i = 0; i < count; i++, position += stride) {
+                destination.set(FLOAT, position, (float) samples[start + i]);
+            }
+        } else {
+            for (int i = 0; i < count; i++, position += stride) {
+                destination.set(DOUBLE, position, samples[start + i]);
+            }
+        }
+    }
+
+    private static void gather(MemorySegment source, long position, int stride, int bytesPerSample, int[] values,
+                               int count) {
+        switch (bytesPerSample) {
+            case 1 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    values[i] = (source.get(ValueLayout.JAVA_BYTE, position) & 0xFF) - 128;
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    values[i] = source.get(SHORT, position);
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    values[i] = (source.get(ValueLayout.JAVA_BYTE, position) & 0xFF)
+                                | ((source.get(ValueLayout.JAVA_BYTE, position + 1) & 0xFF) << 8)
+                                | (source.get(ValueLayout.JAVA_BYTE, position + 2) << 16);
+                }
+            }
+            default -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    values[i] = source.get(INT, position);
+                }
+            }
+        }
+    }
+
+    private static void scatter(int[] values, int count, MemorySegment destination, long position, int stride,
+                                int bytesPerSample) {
+        switch (bytesPerSample) {
+            case 1 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    destination.set(ValueLayout.JAVA_BYTE, position, (byte) (values[i] + 128));
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    destination.set(SHORT, position, (short) values[i]);
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    destination.set(ValueLayout.JAVA_BYTE, position, (byte) values[i]);
+                    destination.set(ValueLayout.JAVA_BYTE, position + 1, (byte) (values[i] >>> 8));
+                    destination.set(ValueLayout.JAVA_BYTE, position + 2, (byte) (values[i] >>> 16));
+                }
+            }
+            default -> {
+                for (int i = 0; i < count; i++, position += stride) {
+                    destination.set(INT, position, values[i]);
+                }
+            }
+        }
+    }
+}
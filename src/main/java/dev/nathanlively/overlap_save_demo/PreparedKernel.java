@@ -0,0 +1,117 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * A kernel whose spectrum has been computed once for a fixed FFT size, ready to convolve any number of
+ * signals with overlap-save. Instances are immutable and safe to use from several threads at once.
+ */
+public final class PreparedKernel {
+    private static final int NOMINAL_SIGNAL_TO_KERNEL_RATIO = 64;
+
+    private final int kernelLength;
+    private final int fftSize;
+    private final double[] kernelTransform;
+
+    private PreparedKernel(int kernelLength, int fftSize, double[] kernelTransform) {
+        this.kernelLength = kernelLength;
+        this.fftSize = fftSize;
+        this.kernelTransform = kernelTransform;
+    }
+
+    /**
+     * Prepares the kernel with the FFT size {@link OverlapSaveAdapter} would pick for signals much longer
+     * than the kernel.
+     */
+    static PreparedKernel of(double[] kernel) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        return of(kernel, defaultFftSize(kernel.length));
+    }
+
+    static int defaultFftSize(int kernelLength) {
+        int nominalSignalLength = (int) Math.min((long) NOMINAL_SIGNAL_TO_KERNEL_RATIO * kernelLength, 1 << 24);
+        return new OverlapSaveAdapter().calculateOptimalFftSize(nominalSignalLength, kernelLength);
+    }
+
+    static PreparedKernel of(double[] kernel, int fftSize) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+        if (fftSize < kernel.length || !RealFftEngine.isSupportedSize(fftSize)) {
+            throw new IllegalArgumentException("FFT size must be a supported real FFT size no smaller than the kernel");
+        }
+        double[] kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+        return new PreparedKernel(kernel.length, fftSize, kernelTransform);
+    }
+
+    public double[] with(double[] signal) {
+        Objects.requireNonNull(signal, "signal cannot be null");
+        if (signal.length == 0) {
+            throw new NoDataException();
+        }
+        return OverlapSaveAdapter.convolveBlocks(signal, kernelTransform, kernelLength, fftSize);
+    }
+
+    /**
+     * Writes the {@code signal.length + kernelLength() - 1} result samples into {@code output} from
+     * {@code outputOffset}.
+     */
+    public void with(double[] signal, double[] output, int outputOffset) {
+        Objects.requireNonNull(signal, "signal cannot be null");
+        Objects.requireNonNull(output, "output cannot be null");
+        if (signal.length == 0) {
+            throw new NoDataException();
+        }
+        int resultLength = signal.length + kernelLength - 1;
+        Objects.checkFromIndexSize(outputOffset, resultLength, output.length);
+        OverlapSaveAdapter.convolveBlockRange(signal, kernelTransform, kernelLength, fftSize,
+                0, OverlapSaveAdapter.blockCount(resultLength, fftSize - kernelLength + 1),
+                new double[kernelTransform.length], output, outputOffset, OverlapSaveAdapter.NO_SILENCE_SKIPPING);
+    }
+
+    /**
+     * Convolves every signal with this kernel on the common fork-join pool and returns the results in input
+     * order. Each worker thread reuses one block buffer and the signals are read without padded copies, so
+     * the per-signal cost is the FFT work plus the result array.
+     */
+    public List<double[]> withAll(List<double[]> signals) {
+        Objects.requireNonNull(signals, "signals cannot be null");
+        for (double[] signal : signals) {
+            Objects.requireNonNull(signal, "signal cannot be null");
+            if (signal.length == 0) {
+                throw new NoDataException();
+            }
+        }
+
+        double[][] results = new double[signals.size()][];
+        IntStream.range(0, results.length).parallel().forEach(i -> {
+            double[] signal = signals.get(i);
+            results[i] = new double[signal.length + kernelLength - 1];
+            convolveInto(signal, results[i], OverlapSaveAdapter.NO_SILENCE_SKIPPING);
+        });
+        return List.of(results);
+    }
+
+    /**
+     * Convolves one signal of a parallel batch into {@code result}, using the calling thread's block buffer, and
+     * returns the number of silent blocks skipped.
+     */
+    long convolveInto(double[] signal, double[] result, double silenceThreshold) {
+        return OverlapSaveAdapter.convolveBlockRange(signal, kernelTransform, kernelLength, fftSize,
+                0, OverlapSaveAdapter.blockCount(result.length, fftSize - kernelLength + 1),
+                OverlapSaveAdapter.workerBlock(kernelTransform.length), result, 0, silenceThreshold);
+    }
+
+    public int kernelLength() {
+        return kernelLength;
+    }
+
+    public int fftSize() {
+        return fftSize;
+    }
+}
@@ -0,0 +1,172 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Real-to-complex FFT of size {@code n} computed with a complex FFT of size {@code n/2}. The even and odd
+ * samples are packed as the real and imaginary parts of one complex signal, and the two spectra are separated
+ * afterwards using Hermitian symmetry.
+ * <p>
+ * Transforms work in place on a buffer of {@link #bufferLength()} = {@code n+2} doubles. Before
+ * {@link #forward(double[])} the first {@code n} entries hold the real samples; afterwards the buffer holds the
+ * {@code n/2+1} non-negative frequency bins interleaved as {@code [re0, im0, re1, im1, ...]}.
+ * {@link #inverse(double[])} reverses this, scaled so that the round trip restores the samples.
+ * <p>
+ * Any even size whose half is a product of 2, 3 and 5 is supported. Power-of-two sizes run on {@link FftEngine},
+ * others on {@link MixedRadixFftEngine}.
+ */
+public final class RealFftEngine {
+
+    private static final Map<Integer, RealFftEngine> ENGINES = new ConcurrentHashMap<>();
+
+    // Measured cost per n log n of the scalar mixed-radix transforms relative to the vectorized radix-2 ones
+    static final double MIXED_RADIX_COST_FACTOR = 1.3;
+
+    private final int size;
+    private final int half;
+    private final InterleavedFft halfSizeFft;
+    private final double[] cosTable;
+    private final double[] sinTable;
+
+    private RealFftEngine(int size) {
+        this.size = size;
+        this.half = size / 2;
+        this.halfSizeFft = Integer.bitCount(half) == 1 ? FftEngine.forSize(half) : MixedRadixFftEngine.forSize(half);
+        this.cosTable = new double[half];
+        this.sinTable = new double[half];
+        FftEngine.computeTwiddles(size, cosTable, sinTable);
+    }
+
+    public static RealFftEngine forSize(int size) {
+        if (!isSupportedSize(size)) {
+            throw new IllegalArgumentException("Real FFT size must be even with no prime factors above 5: " + size);
+        }
+        return ENGINES.computeIfAbsent(size, RealFftEngine::new);
+    }
+
+    public static boolean isSupportedSize(int size) {
+        return size >= 2 && size % 2 == 0 && MixedRadixFftEngine.isSupportedSize(size / 2);
+    }
+
+    /**
+     * Relative cost of one transform of {@code size}: {@code n log n}, weighted by
+     * {@link #MIXED_RADIX_COST_FACTOR} for sizes that are not a power of two.
+     */
+    static double relativeCost(int size) {
+        double cost = size * Math.log(size);
+        return Integer.bitCount(size) == 1 ? cost : MIXED_RADIX_COST_FACTOR * cost;
+    }
+
+    /**
+     * Supported size of at least {@code minimum} with the lowest {@link #relativeCost(int)}.
+     */
+    static int cheapestSizeAtLeast(int minimum) {
+        int smooth = nextSupportedSize(minimum);
+        int powerOfTwo = Integer.highestOneBit(Math.max(2, minimum) - 1) << 1;
+        return relativeCost(smooth) < relativeCost(powerOfTwo) ? smooth : powerOfTwo;
+    }
+
+    /**
+     * Smallest supported size of at least {@code minimum}.
+     */
+    public static int nextSupportedSize(int minimum) {
+        return 2 * MixedRadixFftEngine.nextSupportedSize((Math.max(2, minimum) + 1) / 2);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of non-redundant frequency bins, {@code size/2 + 1}.
+     */
+    public int binCount() {
+        return half + 1;
+    }
+
+    public int bufferLength() {
+        return size + 2;
+    }
+
+    public void forward(double[] data) {
+        checkLength(data.length);
+
+        // Even samples become the real part, odd samples the imaginary part
+        halfSizeFft.forwardInterleaved(data);
+
+        double dcReal = data[0];
+        double dcImaginary = data[1];
+        data[0] = dcReal + dcImaginary;
+        data[1] = 0.0;
+        data[2 * half] = dcReal - dcImaginary;
+        data[2 * half + 1] = 0.0;
+
+        for (int k = 1; k <= half / 2; k++) {
+            int j = half - k;
+            double zReal = data[2 * k];
+            double zImaginary = data[2 * k + 1];
+            double mirrorReal = data[2 * j];
+            double mirrorImaginary = data[2 * j + 1];
+
+            // Split Z into the spectra of the even (E) and odd (O) samples
+            double evenReal = 0.5 * (zReal + mirrorReal);
+            double evenImaginary = 0.5 * (zImaginary - mirrorImaginary);
+            double oddReal = 0.5 * (zImaginary + mirrorImaginary);
+            double oddImaginary = -0.5 * (zReal - mirrorReal);
+
+            double cos = cosTable[k];
+            double sin = sinTable[k];
+            double twiddledReal = cos * oddReal + sin * oddImaginary;
+            double twiddledImaginary = cos * oddImaginary - sin * oddReal;
+
+            data[2 * k] = evenReal + twiddledReal;
+            data[2 * k + 1] = evenImaginary + twiddledImaginary;
+            data[2 * j] = evenReal - twiddledReal;
+            data[2 * j + 1] = twiddledImaginary - evenImaginary;
+        }
+    }
+
+    public void inverse(double[] data) {
+        checkLength(data.length);
+
+        double dcReal = data[0];
+        double nyquistReal = data[2 * half];
+        data[0] = 0.5 * (dcReal + nyquistReal);
+        data[1] = 0.5 * (dcReal - nyquistReal);
+
+        for (int k = 1; k <= half / 2; k++) {
+            int j = half - k;
+            double xReal = data[2 * k];
+            double xImaginary = data[2 * k + 1];
+            double mirrorReal = data[2 * j];
+            double mirrorImaginary = data[2 * j + 1];
+
+            double evenReal = 0.5 * (xReal + mirrorReal);
+            double evenImaginary = 0.5 * (xImaginary - mirrorImaginary);
+            double differenceReal = 0.5 * (xReal - mirrorReal);
+            double differenceImaginary = 0.5 * (xImaginary + mirrorImaginary);
+
+            double cos = cosTable[k];
+            double sin = sinTable[k];
+            double oddReal = differenceReal * cos - differenceImaginary * sin;
+            double oddImaginary = differenceReal * sin + differenceImaginary * cos;
+
+            // Repack as Z = E + iO
+            data[2 * k] = evenReal - oddImaginary;
+            data[2 * k + 1] = evenImaginary + oddReal;
+            data[2 * j] = evenReal + oddImaginary;
+            data[2 * j + 1] = oddReal - evenImaginary;
+        }
+
+        halfSizeFft.inverseInterleaved(data);
+        data[size] = 0.0;
+        data[size + 1] = 0.0;
+    }
+
+    private void checkLength(int actual) {
+        if (actual < size + 2) {
+            throw new IllegalArgumentException("Buffer length " + actual + " is shorter than " + (size + 2));
+        }
+    }
+}
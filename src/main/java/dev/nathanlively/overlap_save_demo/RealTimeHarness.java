@@ -0,0 +1,148 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Drives a block processor the way a fixed-period audio callback would and measures it against the callback
+ * deadline. Block {@code i} becomes available at {@code i * period} on a simulated clock. It starts when both
+ * the block is available and the previous block has finished, so one slow block also delays the blocks queued
+ * behind it, as it would in a driver. Each block's latency, from availability to finished output, goes into a
+ * {@link LatencyHistogram}. A block misses its deadline when that latency exceeds one period.
+ * <p>
+ * Blocks run back to back rather than waiting for the simulated clock, so a long run finishes quickly and
+ * only the processing time is measured.
+ */
+public final class RealTimeHarness {
+
+    /**
+     * The callback under test, shaped like {@link StreamingConvolver#process(double[], int, int, double[])}.
+     */
+    @FunctionalInterface
+    public interface BlockProcessor {
+        void process(double[] input, int offset, int length, double[] output);
+    }
+
+    private final BlockProcessor processor;
+    private final int blockSize;
+    private final double sampleRate;
+    private final long periodNanos;
+    private final LongSupplier clock;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final double[] input;
+    private final double[] output;
+
+    public RealTimeHarness(BlockProcessor processor, int blockSize, double sampleRate) {
+        this(processor, blockSize, sampleRate, System::nanoTime);
+    }
+
+    RealTimeHarness(BlockProcessor processor, int blockSize, double sampleRate, LongSupplier clock) {
+        this.processor = Objects.requireNonNull(processor, "processor cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        if (blockSize < 1 || !(sampleRate > 0)) {
+            throw new IllegalArgumentException("Block size and sample rate must be positive");
+        }
+        this.blockSize = blockSize;
+        this.sampleRate = sampleRate;
+        this.periodNanos = Math.round(blockSize * 1e9 / sampleRate);
+        this.input = new double[blockSize];
+        this.output = new double[blockSize];
+    }
+
+    /**
+     * Runs {@code warmupBlocks} unrecorded blocks followed by {@code blockCount} measured ones, feeding the
+     * processor consecutive blocks of {@code source} and wrapping around at its end.
+     */
+    public Report run(double[] source, int warmupBlocks, int blockCount) {
+        Objects.requireNonNull(source, "source cannot be null");
+        if (source.length == 0) {
+            throw new IllegalArgumentException("Source must not be empty");
+        }
+        if (warmupBlocks < 0 || blockCount < 1) {
+            throw new IllegalArgumentException("Block counts must be positive");
+        }
+
+        int sourcePosition = 0;
+        for (int i = 0; i < warmupBlocks; i++) {
+            sourcePosition = fill(source, sourcePosition);
+            processor.process(input, 0, blockSize, output);
+        }
+
+        histogram.reset();
+        long gcCountBefore = gcCount();
+        long deadlineMisses = 0;
+        long finished = 0;
+        for (int i = 0; i < blockCount; i++) {
+            sourcePosition = fill(source, sourcePosition);
+            long available = i * periodNanos;
+
+            long start = clock.getAsLong();
+            processor.process(input, 0, blockSize, output);
+            long elapsed = clock.getAsLong() - start;
+
+            finished = Math.max(available, finished) + elapsed;
+            long latency = finished - available;
+            histogram.record(latency);
+            if (latency > periodNanos) {
+                deadlineMisses++;
+            }
+        }
+
+        return new Report(blockSize, sampleRate, periodNanos, blockCount, deadlineMisses,
+                histogram.valueAtPercentile(50), histogram.valueAtPercentile(99),
+                histogram.valueAtPercentile(99.9), histogram.max(), gcCount() - gcCountBefore);
+    }
+
+    /**
+     * Time available to process one block, {@code blockSize / sampleRate}.
+     */
+    public long periodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Histogram of the last run, for percentiles beyond those in the {@link Report}.
+     */
+    public LatencyHistogram histogram() {
+        return histogram;
+    }
+
+    private int fill(double[] source, int position) {
+        for (int filled = 0; filled < blockSize; ) {
+            int count = Math.min(blockSize - filled, source.length - position);
+            System.arraycopy(source, position, input, filled, count);
+            filled += count;
+            position = (position + count) % source.length;
+        }
+        return position;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * Latencies are in nanoseconds. {@code garbageCollections} counts collections on any collector during the
+     * measured blocks.
+     */
+    public record Report(int blockSize, double sampleRate, long periodNanos, long blocks, long deadlineMisses,
+                         long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos, long garbageCollections) {
+
+        public double deadlineMissRate() {
+            return (double) deadlineMisses / blocks;
+        }
+
+        public String summary() {
+            return String.format("%d samples @ %.0f Hz (deadline %.3f ms): p50 %.3f ms, p99 %.3f ms, "
+                                 + "p99.9 %.3f ms, max %.3f ms, %d of %d blocks late, %d GCs",
+                    blockSize, sampleRate, periodNanos / 1e6, p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6,
+                    maxNanos / 1e6, deadlineMisses, blocks, garbageCollections);
+        }
+    }
+}
@@ -69,6 +69,106 @@ public class SignalTransformer {
         return result;
     }
 
+    /**
+     * Pointwise complex multiply on split real/imaginary arrays. The result arrays may be the same as either
+     * operand, so a transform can be multiplied in place without allocating.
+     */
+    public static void multiply(double[] real1, double[] imaginary1, double[] real2, double[] imaginary2,
+                                double[] resultReal, double[] resultImaginary) {
+        int length = real1.length;
+        if (imaginary1.length != length || real2.length != length || imaginary2.length != length
+            || resultReal.length != length || resultImaginary.length != length) {
+            throw new IllegalArgumentException("Transform arrays must have same length");
+        }
+
+        int start = SimdKernels.ENABLED
+                ? SimdKernels.multiply(real1, imaginary1, real2, imaginary2, resultReal, resultImaginary, length)
+                : 0;
+        for (int i = start; i < length; i++) {
+            double real = real1[i] * real2[i] - imaginary1[i] * imaginary2[i];
+            double imaginary = real1[i] * imaginary2[i] + imaginary1[i] * real2[i];
+            resultReal[i] = real;
+            resultImaginary[i] = imaginary;
+        }
+    }
+
+    /**
+     * Adds the pointwise product of two split-array spectra to the accumulator arrays.
+     */
+    public static void multiplyAccumulate(double[] real1, double[] imaginary1, double[] real2, double[] imaginary2,
+                                          double[] accumulatorReal, double[] accumulatorImaginary) {
+        int length = real1.length;
+        if (imaginary1.length != length || real2.length != length || imaginary2.length != length
+            || accumulatorReal.length != length || accumulatorImaginary.length != length) {
+            throw new IllegalArgumentException("Transform arrays must have same length");
+        }
+
+        int start = SimdKernels.ENABLED
+                ? SimdKernels.multiplyAccumulate(real1, imaginary1, real2, imaginary2,
+                        accumulatorReal, accumulatorImaginary, length)
+                : 0;
+        for (int i = start; i < length; i++) {
+            accumulatorReal[i] += real1[i] * real2[i] - imaginary1[i] * imaginary2[i];
+            accumulatorImaginary[i] += real1[i] * imaginary2[i] + imaginary1[i] * real2[i];
+        }
+    }
+
+    /**
+     * Pointwise complex multiply on interleaved {@code [re0, im0, re1, im1, ...]} spectra, such as the packed
+     * bins produced by {@link RealFftEngine}. The result array may be the same as either operand.
+     */
+    public static void multiplyInterleaved(double[] transform1, double[] transform2, double[] result) {
+        int length = transform1.length;
+        if (transform2.length != length || result.length != length || length % 2 != 0) {
+            throw new IllegalArgumentException("Transform arrays must have same even length");
+        }
+
+        int start = SimdKernels.ENABLED ? SimdKernels.multiplyInterleaved(transform1, transform2, result, length) : 0;
+        for (int i = start; i < length; i += 2) {
+            double real = transform1[i] * transform2[i] - transform1[i + 1] * transform2[i + 1];
+            double imaginary = transform1[i] * transform2[i + 1] + transform1[i + 1] * transform2[i];
+            result[i] = real;
+            result[i + 1] = imaginary;
+        }
+    }
+
+    /**
+     * Adds the pointwise product of two interleaved spectra to {@code accumulator}, as used to sum the
+     * contributions of kernel partitions.
+     */
+    public static void multiplyAccumulateInterleaved(double[] transform1, double[] transform2, double[] accumulator) {
+        int length = transform1.length;
+        if (transform2.length != length || accumulator.length != length || length % 2 != 0) {
+            throw new IllegalArgumentException("Transform arrays must have same even length");
+        }
+
+        int start = SimdKernels.ENABLED
+                ? SimdKernels.multiplyAccumulateInterleaved(transform1, transform2, accumulator, length)
+                : 0;
+        for (int i = start; i < length; i += 2) {
+            accumulator[i] += transform1[i] * transform2[i] - transform1[i + 1] * transform2[i + 1];
+            accumulator[i + 1] += transform1[i] * transform2[i + 1] + transform1[i + 1] * transform2[i];
+        }
+    }
+
+    /**
+     * Single-precision {@link #multiplyInterleaved(double[], double[], double[])}.
+     */
+    public static void multiplyInterleaved(float[] transform1, float[] transform2, float[] result) {
+        int length = transform1.length;
+        if (transform2.length != length || result.length != length || length % 2 != 0) {
+            throw new IllegalArgumentException("Transform arrays must have same even length");
+        }
+
+        int start = SimdKernels.ENABLED ? SimdKernels.multiplyInterleaved(transform1, transform2, result, length) : 0;
+        for (int i = start; i < length; i += 2) {
+            float real = transform1[i] * transform2[i] - transform1[i + 1] * transform2[i + 1];
+            float imaginary = transform1[i] * transform2[i + 1] + transform1[i + 1] * transform2[i];
+            result[i] = real;
+            result[i + 1] = imaginary;
+        }
+    }
+
     public static void validate(double[] signal, double[] kernel) {
         Objects.requireNonNull(signal, "signal cannot be null");
         Objects.requireNonNull(kernel, "kernel cannot be null");
@@ -77,4 +177,26 @@ public class SignalTransformer {
             throw new NoDataException();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Also checks that {@code output} has room for the full convolution from {@code outputOffset}, and returns
+     * its length.
+     */
+    public static int validate(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        validate(signal, kernel);
+        Objects.requireNonNull(output, "output cannot be null");
+
+        int resultLength = signal.length + kernel.length - 1;
+        Objects.checkFromIndexSize(outputOffset, resultLength, output.length);
+        return resultLength;
+    }
+
+    public static void validate(float[] signal, float[] kernel) {
+        Objects.requireNonNull(signal, "signal cannot be null");
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+
+        if (signal.length == 0 || kernel.length == 0) {
+            throw new NoDataException();
+        }
+    }
+}
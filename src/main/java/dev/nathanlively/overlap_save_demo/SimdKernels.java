@@ -0,0 +1,281 @@
+package dev.nathanlively.overlap_save_demo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DoubleVector} and {@link FloatVector} versions of the complex arithmetic in {@link SignalTransformer}
+ * and the butterfly passes in {@link FftEngine}. Each kernel performs the same IEEE operations as its scalar
+ * loop, without FMA, so results are bit-identical and the two paths can be swapped freely. Callers switch to these
+ * kernels only when {@link #ENABLED}, which is when the preferred vector shape is wider than 128 bits; on narrower
+ * hardware the shuffles cost more than they save.
+ */
+final class SimdKernels {
+
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED.length() >= 2
+            ? DoubleVector.SPECIES_PREFERRED
+            : DoubleVector.SPECIES_128;
+
+    static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED.length() >= 2
+            ? FloatVector.SPECIES_PREFERRED
+            : FloatVector.SPECIES_128;
+
+    static final boolean ENABLED = DoubleVector.SPECIES_PREFERRED.vectorBitSize() > 128;
+
+    // Interleaved complex helpers: swap re/im within each pair, duplicate the real or imaginary part
+    private static final VectorShuffle<Double> SWAP_PAIRS = VectorShuffle.fromOp(SPECIES, i -> i ^ 1);
+    private static final VectorShuffle<Double> DUPLICATE_REAL = VectorShuffle.fromOp(SPECIES, i -> i & ~1);
+    private static final VectorShuffle<Double> DUPLICATE_IMAGINARY = VectorShuffle.fromOp(SPECIES, i -> i | 1);
+    private static final DoubleVector NEGATE_REAL =
+            DoubleVector.fromArray(SPECIES, alternatingSigns(SPECIES.length()), 0);
+
+    private static final VectorShuffle<Float> FLOAT_SWAP_PAIRS = VectorShuffle.fromOp(FLOAT_SPECIES, i -> i ^ 1);
+    private static final VectorShuffle<Float> FLOAT_DUPLICATE_REAL = VectorShuffle.fromOp(FLOAT_SPECIES, i -> i & ~1);
+    private static final VectorShuffle<Float> FLOAT_DUPLICATE_IMAGINARY =
+            VectorShuffle.fromOp(FLOAT_SPECIES, i -> i | 1);
+    private static final FloatVector FLOAT_NEGATE_REAL =
+            FloatVector.fromArray(FLOAT_SPECIES, FloatFftEngine.toFloat(alternatingSigns(FLOAT_SPECIES.length())), 0);
+
+    private SimdKernels() {
+    }
+
+    /**
+     * Split-array complex multiply over the first {@code length} bins. Returns the number of bins handled, the
+     * caller finishes the rest.
+     */
+    static int multiply(double[] real1, double[] imaginary1, double[] real2, double[] imaginary2,
+                        double[] resultReal, double[] resultImaginary, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector ar = DoubleVector.fromArray(SPECIES, real1, i);
+            DoubleVector ai = DoubleVector.fromArray(SPECIES, imaginary1, i);
+            DoubleVector br = DoubleVector.fromArray(SPECIES, real2, i);
+            DoubleVector bi = DoubleVector.fromArray(SPECIES, imaginary2, i);
+            ar.mul(br).sub(ai.mul(bi)).intoArray(resultReal, i);
+            ar.mul(bi).add(ai.mul(br)).intoArray(resultImaginary, i);
+        }
+        return bound;
+    }
+
+    static int multiplyAccumulate(double[] real1, double[] imaginary1, double[] real2, double[] imaginary2,
+                                  double[] accumulatorReal, double[] accumulatorImaginary, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector ar = DoubleVector.fromArray(SPECIES, real1, i);
+            DoubleVector ai = DoubleVector.fromArray(SPECIES, imaginary1, i);
+            DoubleVector br = DoubleVector.fromArray(SPECIES, real2, i);
+            DoubleVector bi = DoubleVector.fromArray(SPECIES, imaginary2, i);
+            DoubleVector.fromArray(SPECIES, accumulatorReal, i)
+                    .add(ar.mul(br).sub(ai.mul(bi)))
+                    .intoArray(accumulatorReal, i);
+            DoubleVector.fromArray(SPECIES, accumulatorImaginary, i)
+                    .add(ar.mul(bi).add(ai.mul(br)))
+                    .intoArray(accumulatorImaginary, i);
+        }
+        return bound;
+    }
+
+    /**
+     * Interleaved complex multiply over the first {@code length} doubles. Returns the number of doubles handled,
+     * always a multiple of two.
+     */
+    static int multiplyInterleaved(double[] transform1, double[] transform2, double[] result, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, transform1, i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, transform2, i);
+            interleavedProduct(a, b).intoArray(result, i);
+        }
+        return bound;
+    }
+
+    static int multiplyAccumulateInterleaved(double[] transform1, double[] transform2, double[] accumulator,
+                                             int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, transform1, i);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, transform2, i);
+            DoubleVector.fromArray(SPECIES, accumulator, i)
+                    .add(interleavedProduct(a, b))
+                    .intoArray(accumulator, i);
+        }
+        return bound;
+    }
+
+    // (ar*br + ai*-bi, ai*br + ar*bi) per pair, the same roundings as the scalar formula
+    private static DoubleVector interleavedProduct(DoubleVector a, DoubleVector b) {
+        DoubleVector realParts = b.rearrange(DUPLICATE_REAL);
+        DoubleVector imaginaryParts = b.rearrange(DUPLICATE_IMAGINARY).mul(NEGATE_REAL);
+        return a.mul(realParts).add(a.rearrange(SWAP_PAIRS).mul(imaginaryParts));
+    }
+
+    /**
+     * One radix-2 pass over split arrays for butterflies of {@code half} points. {@code cos} and {@code sin}
+     * hold the pass's twiddles contiguously starting at {@code twiddleOffset}; {@code half} must be a multiple
+     * of the vector length.
+     */
+    static void radix2(double[] real, double[] imaginary, int size, int half,
+                       double[] cos, double[] sin, int twiddleOffset, double sign) {
+        int span = 2 * half;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < half; k += SPECIES.length()) {
+                DoubleVector c = DoubleVector.fromArray(SPECIES, cos, twiddleOffset + k);
+                DoubleVector s = signed(DoubleVector.fromArray(SPECIES, sin, twiddleOffset + k), sign);
+                splitButterfly(real, imaginary, start + k, start + k + half, c, s);
+            }
+        }
+    }
+
+    /**
+     * Two consecutive radix-2 passes, for butterflies of {@code half} and {@code 2*half} points, fused into one
+     * radix-4 sweep so each element is loaded and stored once instead of twice. {@code twiddleOffset} and
+     * {@code nextTwiddleOffset} locate the two passes' twiddles.
+     */
+    static void radix4(double[] real, double[] imaginary, int size, int half,
+                       double[] cos, double[] sin, int twiddleOffset, int nextTwiddleOffset, double sign) {
+        int span = 4 * half;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < half; k += SPECIES.length()) {
+                int p0 = start + k;
+                int p1 = p0 + half;
+                int p2 = p1 + half;
+                int p3 = p2 + half;
+
+                DoubleVector c1 = DoubleVector.fromArray(SPECIES, cos, twiddleOffset + k);
+                DoubleVector s1 = signed(DoubleVector.fromArray(SPECIES, sin, twiddleOffset + k), sign);
+                splitButterfly(real, imaginary, p0, p1, c1, s1);
+                splitButterfly(real, imaginary, p2, p3, c1, s1);
+
+                DoubleVector c2 = DoubleVector.fromArray(SPECIES, cos, nextTwiddleOffset + k);
+                DoubleVector s2 = signed(DoubleVector.fromArray(SPECIES, sin, nextTwiddleOffset + k), sign);
+                DoubleVector c3 = DoubleVector.fromArray(SPECIES, cos, nextTwiddleOffset + k + half);
+                DoubleVector s3 = signed(DoubleVector.fromArray(SPECIES, sin, nextTwiddleOffset + k + half), sign);
+                splitButterfly(real, imaginary, p0, p2, c2, s2);
+                splitButterfly(real, imaginary, p1, p3, c3, s3);
+            }
+        }
+    }
+
+    private static void splitButterfly(double[] real, double[] imaginary, int top, int bottom,
+                                       DoubleVector cos, DoubleVector sin) {
+        DoubleVector topReal = DoubleVector.fromArray(SPECIES, real, top);
+        DoubleVector topImaginary = DoubleVector.fromArray(SPECIES, imaginary, top);
+        DoubleVector bottomReal = DoubleVector.fromArray(SPECIES, real, bottom);
+        DoubleVector bottomImaginary = DoubleVector.fromArray(SPECIES, imaginary, bottom);
+
+        DoubleVector productReal = bottomReal.mul(cos).sub(bottomImaginary.mul(sin));
+        DoubleVector productImaginary = bottomReal.mul(sin).add(bottomImaginary.mul(cos));
+
+        topReal.sub(productReal).intoArray(real, bottom);
+        topImaginary.sub(productImaginary).intoArray(imaginary, bottom);
+        topReal.add(productReal).intoArray(real, top);
+        topImaginary.add(productImaginary).intoArray(imaginary, top);
+    }
+
+    /**
+     * Radix-2 pass over an interleaved buffer. The twiddles are stored per complex bin as {@code (cos, cos)} and
+     * {@code (-sin, sin)} so a vector of bins multiplies without further shuffling; {@code 2*half} must be a
+     * multiple of the vector length.
+     */
+    static void radix2Interleaved(double[] data, int size, int half,
+                                  double[] cos, double[] sin, int twiddleOffset, double sign) {
+        int span = 2 * half;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < 2 * half; k += SPECIES.length()) {
+                DoubleVector c = DoubleVector.fromArray(SPECIES, cos, twiddleOffset + k);
+                DoubleVector s = signed(DoubleVector.fromArray(SPECIES, sin, twiddleOffset + k), sign);
+                interleavedButterfly(data, 2 * start + k, 2 * (start + half) + k, c, s);
+            }
+        }
+    }
+
+    static void radix4Interleaved(double[] data, int size, int half,
+                                  double[] cos, double[] sin, int twiddleOffset, int nextTwiddleOffset, double sign) {
+        int span = 4 * half;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < 2 * half; k += SPECIES.length()) {
+                int p0 = 2 * start + k;
+                int p1 = p0 + 2 * half;
+                int p2 = p1 + 2 * half;
+                int p3 = p2 + 2 * half;
+
+                DoubleVector c1 = DoubleVector.fromArray(SPECIES, cos, twiddleOffset + k);
+                DoubleVector s1 = signed(DoubleVector.fromArray(SPECIES, sin, twiddleOffset + k), sign);
+                interleavedButterfly(data, p0, p1, c1, s1);
+                interleavedButterfly(data, p2, p3, c1, s1);
+
+                DoubleVector c2 = DoubleVector.fromArray(SPECIES, cos, nextTwiddleOffset + k);
+                DoubleVector s2 = signed(DoubleVector.fromArray(SPECIES, sin, nextTwiddleOffset + k), sign);
+                DoubleVector c3 = DoubleVector.fromArray(SPECIES, cos, nextTwiddleOffset + k + 2 * half);
+                DoubleVector s3 = signed(DoubleVector.fromArray(SPECIES, sin, nextTwiddleOffset + k + 2 * half), sign);
+                interleavedButterfly(data, p0, p2, c2, s2);
+                interleavedButterfly(data, p1, p3, c3, s3);
+            }
+        }
+    }
+
+    private static void interleavedButterfly(double[] data, int top, int bottom, DoubleVector cos, DoubleVector sin) {
+        DoubleVector topValues = DoubleVector.fromArray(SPECIES, data, top);
+        DoubleVector bottomValues = DoubleVector.fromArray(SPECIES, data, bottom);
+
+        DoubleVector product = bottomValues.mul(cos).add(bottomValues.rearrange(SWAP_PAIRS).mul(sin));
+
+        topValues.sub(product).intoArray(data, bottom);
+        topValues.add(product).intoArray(data, top);
+    }
+
+    private static DoubleVector signed(DoubleVector sin, double sign) {
+        return sign < 0 ? sin.neg() : sin;
+    }
+
+    /**
+     * Float counterpart of {@link #multiplyInterleaved(double[], double[], double[], int)}.
+     */
+    static int multiplyInterleaved(float[] transform1, float[] transform2, float[] result, int length) {
+        int bound = FLOAT_SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += FLOAT_SPECIES.length()) {
+            FloatVector a = FloatVector.fromArray(FLOAT_SPECIES, transform1, i);
+            FloatVector b = FloatVector.fromArray(FLOAT_SPECIES, transform2, i);
+            FloatVector realParts = b.rearrange(FLOAT_DUPLICATE_REAL);
+            FloatVector imaginaryParts = b.rearrange(FLOAT_DUPLICATE_IMAGINARY).mul(FLOAT_NEGATE_REAL);
+            a.mul(realParts).add(a.rearrange(FLOAT_SWAP_PAIRS).mul(imaginaryParts)).intoArray(result, i);
+        }
+        return bound;
+    }
+
+    /**
+     * Float counterpart of {@link #radix2Interleaved(double[], int, int, double[], double[], int, double)}.
+     */
+    static void radix2Interleaved(float[] data, int size, int half,
+                                  float[] cos, float[] sin, int twiddleOffset, float sign) {
+        int span = 2 * half;
+        for (int start = 0; start < size; start += span) {
+            for (int k = 0; k < 2 * half; k += FLOAT_SPECIES.length()) {
+                FloatVector c = FloatVector.fromArray(FLOAT_SPECIES, cos, twiddleOffset + k);
+                FloatVector s = FloatVector.fromArray(FLOAT_SPECIES, sin, twiddleOffset + k);
+                if (sign < 0) {
+                    s = s.neg();
+                }
+                int top = 2 * start + k;
+                int bottom = 2 * (start + half) + k;
+
+                FloatVector topValues = FloatVector.fromArray(FLOAT_SPECIES, data, top);
+                FloatVector bottomValues = FloatVector.fromArray(FLOAT_SPECIES, data, bottom);
+                FloatVector product = bottomValues.mul(c).add(bottomValues.rearrange(FLOAT_SWAP_PAIRS).mul(s));
+
+                topValues.sub(product).intoArray(data, bottom);
+                topValues.add(product).intoArray(data, top);
+            }
+        }
+    }
+
+    private static double[] alternatingSigns(int length) {
+        double[] signs = new double[length];
+        for (int i = 0; i < signs.length; i++) {
+            signs[i] = (i & 1) == 0 ? -1.0 : 1.0;
+        }
+        return signs;
+    }
+}
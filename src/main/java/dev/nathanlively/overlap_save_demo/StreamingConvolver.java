@@ -0,0 +1,123 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Stateful overlap-save convolver for live audio. The kernel is transformed once, input can be pushed in
+ * chunks of any size, and steady-state processing allocates nothing. Output is delayed by exactly
+ * {@link #latency()} samples and is otherwise sample-identical to {@link OverlapSaveAdapter#with(double[], double[])}
+ * using the same FFT size.
+ */
+public class StreamingConvolver {
+    private final int kernelLength;
+    private final int fftSize;
+    private final int blockSize;
+    private final RealFftEngine fft;
+    private final double[] kernelTransform;
+
+    // First kernelLength-1 samples hold the overlap history, the rest collects the next block of input
+    private final double[] inputBuffer;
+    private final double[] outputBuffer;
+    private final double[] block;
+    private int inputPosition;
+    private int outputPosition;
+
+    public StreamingConvolver(double[] kernel) {
+        this(kernel, new OverlapSaveAdapter().calculateOptimalFftSize(kernel.length, kernel.length));
+    }
+
+    public StreamingConvolver(double[] kernel, int fftSize) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+        if (fftSize < kernel.length || !RealFftEngine.isSupportedSize(fftSize)) {
+            throw new IllegalArgumentException("FFT size must be a supported real FFT size no smaller than the kernel");
+        }
+
+        this.kernelLength = kernel.length;
+        this.fftSize = fftSize;
+        this.blockSize = fftSize - kernelLength + 1;
+        this.fft = RealFftEngine.forSize(fftSize);
+        this.kernelTransform = KernelSpectrumCache.shared().spectrum(kernel, fftSize);
+        this.inputBuffer = new double[fftSize];
+        this.outputBuffer = new double[blockSize];
+        this.block = new double[fft.bufferLength()];
+        this.inputPosition = kernelLength - 1;
+        this.outputPosition = 0;
+    }
+
+    /**
+     * Pushes {@code length} samples from {@code input} and writes the same number of delayed output samples to
+     * {@code output}, both starting at {@code offset}. The two arrays may be the same for in-place processing.
+     */
+    public void process(double[] input, int offset, int length, double[] output) {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        Objects.checkFromIndexSize(offset, length, output.length);
+
+        int processed = 0;
+        while (processed < length) {
+            int count = Math.min(length - processed, fftSize - inputPosition);
+
+            // Read the input before writing the output so in-place processing is safe
+            System.arraycopy(input, offset + processed, inputBuffer, inputPosition, count);
+            System.arraycopy(outputBuffer, outputPosition, output, offset + processed, count);
+
+            inputPosition += count;
+            outputPosition += count;
+            processed += count;
+
+            if (inputPosition == fftSize) {
+                convolveBlock();
+            }
+        }
+    }
+
+    public void process(double[] input, double[] output) {
+        process(input, 0, input.length, output);
+    }
+
+    /**
+     * Clears the overlap history and any pending output, as if no input had been pushed yet.
+     */
+    public void reset() {
+        Arrays.fill(inputBuffer, 0.0);
+        Arrays.fill(outputBuffer, 0.0);
+        inputPosition = kernelLength - 1;
+        outputPosition = 0;
+    }
+
+    /**
+     * Number of samples between an input sample and the first output sample it affects.
+     */
+    public int latency() {
+        return blockSize;
+    }
+
+    public int fftSize() {
+        return fftSize;
+    }
+
+    public int kernelLength() {
+        return kernelLength;
+    }
+
+    private void convolveBlock() {
+        System.arraycopy(inputBuffer, 0, block, 0, fftSize);
+
+        fft.forward(block);
+        SignalTransformer.multiplyInterleaved(block, kernelTransform, block);
+        fft.inverse(block);
+
+        // Keep the valid portion (discard first kernelLength-1 samples due to aliasing)
+        System.arraycopy(block, kernelLength - 1, outputBuffer, 0, blockSize);
+
+        // Slide the last kernelLength-1 input samples to the front as the next block's history
+        System.arraycopy(inputBuffer, blockSize, inputBuffer, 0, kernelLength - 1);
+        inputPosition = kernelLength - 1;
+        outputPosition = 0;
+    }
+}
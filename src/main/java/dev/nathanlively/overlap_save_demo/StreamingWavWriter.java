@@ -0,0 +1,215 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Writes a WAV file block by block, so output length is limited by the disk rather than the heap. Samples are
+ * encoded by {@link PcmCodec} into one reusable direct buffer and written through a {@link FileChannel}; the RIFF and
+ * data sizes are patched in on {@link #close()}.
+ * <p>
+ * The header reserves a {@code JUNK} chunk the size of an RF64 {@code ds64} chunk. Files that end up larger than
+ * RIFF's 4 GB limit are turned into RF64 on close by renaming the chunks and filling in the 64-bit sizes. Smaller
+ * files stay plain RIFF, and readers skip the unused {@code JUNK} chunk.
+ */
+public final class StreamingWavWriter implements AutoCloseable {
+
+    public enum SampleFormat {
+        PCM_16(16, MappedWavReader.FORMAT_PCM),
+        PCM_24(24, MappedWavReader.FORMAT_PCM),
+        FLOAT_32(32, MappedWavReader.FORMAT_IEEE_FLOAT);
+
+        private final int bitDepth;
+        private final int formatTag;
+
+        SampleFormat(int bitDepth, int formatTag) {
+            this.bitDepth = bitDepth;
+            this.formatTag = formatTag;
+        }
+
+        public int bitDepth() {
+            return bitDepth;
+        }
+    }
+
+    static final long RIFF_SIZE_LIMIT = 0xFFFFFFFFL;
+
+    private static final int DS64_SIZE = 28;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int channelCount;
+    private final SampleFormat format;
+    private final int bytesPerSample;
+    private final long riffSizeLimit;
+    private final int dataSizeOffset;
+    private final long dataOffset;
+    private final ByteBuffer buffer;
+    private final MemorySegment encoded;
+
+    private long framesWritten;
+    private boolean closed;
+
+    private StreamingWavWriter(Path path, FileChannel channel, long sampleRate, int channelCount,
+                               SampleFormat format, long riffSizeLimit) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.channelCount = channelCount;
+        this.format = format;
+        this.bytesPerSample = format.bitDepth / 8;
+        this.riffSizeLimit = riffSizeLimit;
+
+        int frameSize = bytesPerSample * channelCount;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(frameSize, BUFFER_BYTES / frameSize * frameSize));
+        this.encoded = MemorySegment.ofBuffer(buffer);
+
+        // Non-PCM formats carry a cbSize field, which is zero here
+        int fmtSize = format.formatTag == MappedWavReader.FORMAT_PCM ? 16 : 18;
+        ByteBuffer header = ByteBuffer.allocate(12 + 8 + DS64_SIZE + 8 + fmtSize + 8).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(ascii("RIFF")).putInt(0).put(ascii("WAVE"));
+        header.put(ascii("JUNK")).putInt(DS64_SIZE).put(new byte[DS64_SIZE]);
+        header.put(ascii("fmt ")).putInt(fmtSize)
+                .putShort((short) format.formatTag)
+                .putShort((short) channelCount)
+                .putInt((int) sampleRate)
+                .putInt((int) (sampleRate * frameSize))
+                .putShort((short) frameSize)
+                .putShort((short) format.bitDepth);
+        if (fmtSize == 18) {
+            header.putShort((short) 0);
+        }
+        this.dataSizeOffset = header.position() + 4;
+        header.put(ascii("data")).putInt(0);
+        this.dataOffset = header.position();
+
+        writeFully(header.flip(), 0);
+        channel.position(dataOffset);
+    }
+
+    public static StreamingWavWriter create(Path path, long sampleRate, int channelCount, SampleFormat format) {
+        return create(path, sampleRate, channelCount, format, RIFF_SIZE_LIMIT);
+    }
+
+    static StreamingWavWriter create(Path path, long sampleRate, int channelCount, SampleFormat format,
+                                     long riffSizeLimit) {
+        Objects.requireNonNull(path, "path cannot be null");
+        Objects.requireNonNull(format, "format cannot be null");
+        if (channelCount < 1 || channelCount > 0xFFFF) {
+            throw new IllegalArgumentException("Channel count must be between 1 and 65535: " + channelCount);
+        }
+        if (sampleRate < 1 || sampleRate > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Sample rate out of range: " + sampleRate);
+        }
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            return new StreamingWavWriter(path, channel, sampleRate, channelCount, format, riffSizeLimit);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new RuntimeException("Failed to create WAV file: " + path, e);
+        }
+    }
+
+    /**
+     * Appends {@code length} frames starting at {@code offset} of every channel.
+     */
+    public void write(double[][] channels, int offset, int length) {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed: " + path);
+        }
+        if (channels.length != channelCount) {
+            throw new IllegalArgumentException("Expected " + channelCount + " channels but got " + channels.length);
+        }
+        for (double[] samples : channels) {
+            Objects.checkFromIndexSize(offset, length, samples.length);
+        }
+
+        int frameSize = bytesPerSample * channelCount;
+        int framesPerBuffer = buffer.capacity() / frameSize;
+        try {
+            for (int done = 0; done < length; done += framesPerBuffer) {
+                int frames = Math.min(framesPerBuffer, length - done);
+                PcmCodec.encode(channels, offset + done, format.bitDepth, format == SampleFormat.FLOAT_32,
+                        encoded, 0, frames);
+                buffer.clear().limit(frames * frameSize);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write WAV file: " + path, e);
+        }
+        framesWritten += length;
+    }
+
+    public void write(double[][] channels) {
+        write(channels, 0, channels.length > 0 ? channels[0].length : 0);
+    }
+
+    public long framesWritten() {
+        return framesWritten;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try (FileChannel toClose = channel) {
+            long dataSize = framesWritten * bytesPerSample * channelCount;
+            long end = dataOffset + dataSize;
+            // Chunks are padded to an even length
+            if ((dataSize & 1) != 0) {
+                writeFully(ByteBuffer.wrap(new byte[1]), end);
+                end++;
+            }
+            long riffSize = end - 8;
+
+            ByteBuffer field = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            if (riffSize <= riffSizeLimit) {
+                writeFully(field.putInt(0, (int) riffSize), 4);
+                writeFully(field.clear().putInt(0, (int) dataSize), dataSizeOffset);
+            } else {
+                ByteBuffer ds64 = ByteBuffer.allocate(8 + DS64_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                ds64.put(ascii("ds64")).putInt(DS64_SIZE)
+                        .putLong(riffSize).putLong(dataSize).putLong(framesWritten).putInt(0);
+                writeFully(ByteBuffer.wrap(ascii("RF64")), 0);
+                writeFully(field.putInt(0, -1), 4);
+                writeFully(ds64.flip(), 12);
+                writeFully(field.clear().putInt(0, -1), dataSizeOffset);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to finish WAV file: " + path, e);
+        }
+    }
+
+
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        source.rewind();
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
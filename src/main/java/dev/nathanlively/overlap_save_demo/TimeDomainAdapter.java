@@ -7,10 +7,30 @@ public class TimeDomainAdapter implements Convolution {
     public double[] with(double[] signal, double[] kernel) {
         SignalTransformer.validate(signal, kernel);
 
-        final double[] paddedSignal = SignalTransformer.padSymmetric(signal, kernel.length - 1);
+        final double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
+
+    /**
+     * Windows that overhang either end of the signal have their taps clipped to it instead of reading a
+     * zero-padded copy. The outputs in between use every tap.
+     */
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        final int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
         final double[] reversedKernel = reverseKernel(kernel);
+        final int padding = kernel.length - 1;
 
-        return computeConvolution(paddedSignal, reversedKernel, signal.length);
+        for (int outputPos = 0; outputPos < padding; outputPos++) {
+            output[outputOffset + outputPos] = computeEdgeConvolution(signal, reversedKernel, outputPos);
+        }
+        for (int outputPos = padding; outputPos < signal.length; outputPos++) {
+            output[outputOffset + outputPos] = computeWindowConvolution(signal, reversedKernel, outputPos - padding);
+        }
+        for (int outputPos = Math.max(padding, signal.length); outputPos < resultLength; outputPos++) {
+            output[outputOffset + outputPos] = computeEdgeConvolution(signal, reversedKernel, outputPos);
+        }
     }
 
     double[] reverseKernel(double[] kernel) {
@@ -19,27 +39,25 @@ public class TimeDomainAdapter implements Convolution {
         return flippedKernel;
     }
 
-    private double[] computeConvolution(double[] paddedSignal, double[] reversedKernel, int signalLength) {
-        int kernelLength = reversedKernel.length;
-        final int resultLength = signalLength + kernelLength - 1;
-        final double[] result = new double[resultLength];
-        final int padding = kernelLength - 1;
+    private double computeWindowConvolution(double[] signal, double[] reversedKernel, int windowStartPos) {
+        double sum = 0;
 
-        for (int outputPos = 0; outputPos < resultLength; outputPos++) {
-            result[outputPos] = computeWindowConvolution(paddedSignal, reversedKernel,
-                    outputPos, padding, kernelLength);
+        for (int i = 0; i < reversedKernel.length; i++) {
+            sum += signal[windowStartPos + i] * reversedKernel[i];
         }
 
-        return result;
+        return sum;
     }
 
-    private double computeWindowConvolution(double[] paddedSignal, double[] preparedKernel,
-                                            int outputPos, int padding, int kernelLength) {
-        int windowStartPos = outputPos + padding - kernelLength + 1;
+    // Taps that fall outside the signal would multiply zero padding, so the loop bounds skip them
+    private double computeEdgeConvolution(double[] signal, double[] reversedKernel, int outputPos) {
+        int windowStartPos = outputPos - (reversedKernel.length - 1);
+        int firstTap = Math.max(0, -windowStartPos);
+        int endTap = Math.min(reversedKernel.length, signal.length - windowStartPos);
         double sum = 0;
 
-        for (int i = 0; i < kernelLength; i++) {
-            sum += paddedSignal[windowStartPos + i] * preparedKernel[i];
+        for (int i = firstTap; i < endTap; i++) {
+            sum += signal[windowStartPos + i] * reversedKernel[i];
         }
 
         return sum;
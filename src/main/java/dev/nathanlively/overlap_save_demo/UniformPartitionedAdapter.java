@@ -0,0 +1,57 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Arrays;
+
+public class UniformPartitionedAdapter implements Convolution {
+    static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private final int blockSize;
+
+    public UniformPartitionedAdapter() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    public UniformPartitionedAdapter(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public double[] with(double[] signal, double[] kernel) {
+        SignalTransformer.validate(signal, kernel);
+
+        double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
+    }
+
+    /**
+     * Runs the convolver in place over the output region. It delays everything by {@code latency()} samples, so
+     * the result is shifted back afterwards and its last samples come from a block-sized flush of silence.
+     */
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+
+        UniformPartitionedConvolver convolver = new UniformPartitionedConvolver(kernel, blockSize);
+        int latency = convolver.latency();
+
+        // The signal followed by silence that pushes the kernel tail through
+        System.arraycopy(signal, 0, output, outputOffset, signal.length);
+        Arrays.fill(output, outputOffset + signal.length, outputOffset + resultLength, 0.0);
+        convolver.process(output, outputOffset, resultLength, output);
+
+        int shifted = Math.max(0, resultLength - latency);
+        if (shifted > 0) {
+            System.arraycopy(output, outputOffset + latency, output, outputOffset, shifted);
+        }
+
+        double[] flush = new double[latency];
+        convolver.process(flush, flush);
+        System.arraycopy(flush, shifted + latency - resultLength, output, outputOffset + shifted,
+                resultLength - shifted);
+    }
+}
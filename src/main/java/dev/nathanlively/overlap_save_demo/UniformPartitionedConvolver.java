@@ -0,0 +1,180 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Uniformly partitioned overlap-save (UPOLS) convolver for long impulse responses. The kernel is split into
+ * partitions of {@code blockSize} samples, each transformed once at FFT size {@code 2*blockSize}. Every input
+ * block is transformed once and kept in a frequency-domain delay line, and each output block is the inverse
+ * transform of the spectra multiply-accumulated across all partitions.
+ * <p>
+ * Latency and per-block FFT size depend only on {@code blockSize}, not on the kernel length. Block sizes with
+ * factors of 3 and 5, such as 480 or 960, are supported so blocks can match a hardware buffer.
+ * <p>
+ * An extra {@code delay} shifts the output later without padding the kernel. Whole blocks of it are taken from
+ * older delay line slots, which are kept but never multiply-accumulated. The remainder delays the input in the
+ * time domain.
+ */
+public class UniformPartitionedConvolver {
+    private final int blockSize;
+    private final int partitionCount;
+    private final int delayBlocks;
+    private final RealFftEngine fft;
+    private final double[][] kernelPartitions;
+
+    // Frequency-domain delay line of past input spectra, newest at delayLineHead
+    private final double[][] delayLine;
+    private int delayLineHead;
+
+    // Delays the input by the part of the delay that is shorter than a block
+    private final double[] inputDelay;
+    private int inputDelayPosition;
+
+    // First blockSize samples hold the previous block, the rest collects the next block of input
+    private final double[] inputBuffer;
+    private final double[] outputBuffer;
+    private final double[] accumulator;
+    private int inputPosition;
+    private int outputPosition;
+
+    public UniformPartitionedConvolver(double[] kernel, int blockSize) {
+        this(kernel, blockSize, 0);
+    }
+
+    /**
+     * @param delay samples of delay added to the output on top of the one block of {@link #latency()}
+     */
+    public UniformPartitionedConvolver(double[] kernel, int blockSize, int delay) {
+        Objects.requireNonNull(kernel, "kernel cannot be null");
+        if (kernel.length == 0) {
+            throw new NoDataException();
+        }
+        if (blockSize < 1 || !RealFftEngine.isSupportedSize(2 * blockSize)) {
+            throw new IllegalArgumentException("Block size must have no prime factors above 5: " + blockSize);
+        }
+        if (delay < 0) {
+            throw new IllegalArgumentException("Delay cannot be negative: " + delay);
+        }
+
+        this.blockSize = blockSize;
+        this.partitionCount = (kernel.length + blockSize - 1) / blockSize;
+        this.delayBlocks = delay / blockSize;
+        this.inputDelay = new double[delay % blockSize];
+        this.fft = RealFftEngine.forSize(2 * blockSize);
+        this.kernelPartitions = new double[partitionCount][];
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int start = partition * blockSize;
+            int length = Math.min(blockSize, kernel.length - start);
+            double[] spectrum = new double[fft.bufferLength()];
+            System.arraycopy(kernel, start, spectrum, 0, length);
+            fft.forward(spectrum);
+            kernelPartitions[partition] = spectrum;
+        }
+
+        this.delayLine = new double[delayBlocks + partitionCount][fft.bufferLength()];
+        this.inputBuffer = new double[2 * blockSize];
+        this.outputBuffer = new double[blockSize];
+        this.accumulator = new double[fft.bufferLength()];
+        this.inputPosition = blockSize;
+        this.outputPosition = 0;
+    }
+
+    /**
+     * Pushes {@code length} samples from {@code input} and writes the same number of delayed output samples to
+     * {@code output}, both starting at {@code offset}. The two arrays may be the same for in-place processing.
+     */
+    public void process(double[] input, int offset, int length, double[] output) {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        Objects.checkFromIndexSize(offset, length, output.length);
+
+        int processed = 0;
+        while (processed < length) {
+            int count = Math.min(length - processed, inputBuffer.length - inputPosition);
+
+            // Read the input before writing the output so in-place processing is safe
+            if (inputDelay.length == 0) {
+                System.arraycopy(input, offset + processed, inputBuffer, inputPosition, count);
+            } else {
+                delayInput(input, offset + processed, count);
+            }
+            System.arraycopy(outputBuffer, outputPosition, output, offset + processed, count);
+
+            inputPosition += count;
+            outputPosition += count;
+            processed += count;
+
+            if (inputPosition == inputBuffer.length) {
+                convolveBlock();
+            }
+        }
+    }
+
+    public void process(double[] input, double[] output) {
+        process(input, 0, input.length, output);
+    }
+
+    public void reset() {
+        for (double[] spectrum : delayLine) {
+            Arrays.fill(spectrum, 0.0);
+        }
+        Arrays.fill(inputBuffer, 0.0);
+        Arrays.fill(outputBuffer, 0.0);
+        Arrays.fill(inputDelay, 0.0);
+        inputDelayPosition = 0;
+        delayLineHead = 0;
+        inputPosition = blockSize;
+        outputPosition = 0;
+    }
+
+    /**
+     * Number of samples between an input sample and the first output sample it affects.
+     */
+    public int latency() {
+        return blockSize + delayBlocks * blockSize + inputDelay.length;
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    public int partitionCount() {
+        return partitionCount;
+    }
+
+    private void delayInput(double[] input, int from, int count) {
+        for (int i = 0; i < count; i++) {
+            inputBuffer[inputPosition + i] = inputDelay[inputDelayPosition];
+            inputDelay[inputDelayPosition] = input[from + i];
+            if (++inputDelayPosition == inputDelay.length) {
+                inputDelayPosition = 0;
+            }
+        }
+    }
+
+    private void convolveBlock() {
+        // Transform the sliding window of the previous and current block into the newest delay line slot
+        int slots = delayLine.length;
+        delayLineHead = (delayLineHead + slots - 1) % slots;
+        double[] newest = delayLine[delayLineHead];
+        System.arraycopy(inputBuffer, 0, newest, 0, inputBuffer.length);
+        fft.forward(newest);
+
+        // Partition p pairs with the input spectrum from delayBlocks + p blocks ago
+        Arrays.fill(accumulator, 0.0);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            double[] pastInput = delayLine[(delayLineHead + delayBlocks + partition) % slots];
+            SignalTransformer.multiplyAccumulateInterleaved(pastInput, kernelPartitions[partition], accumulator);
+        }
+        fft.inverse(accumulator);
+
+        // The second half is free of circular wrap-around
+        System.arraycopy(accumulator, blockSize, outputBuffer, 0, blockSize);
+
+        System.arraycopy(inputBuffer, blockSize, inputBuffer, 0, blockSize);
+        inputPosition = blockSize;
+        outputPosition = 0;
+    }
+}
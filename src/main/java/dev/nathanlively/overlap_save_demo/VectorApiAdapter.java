@@ -1,58 +1,112 @@
 package dev.nathanlively.overlap_save_demo;
 
 import jdk.incubator.vector.DoubleVector;
-import jdk.incubator.vector.VectorMask;
-import jdk.incubator.vector.VectorOperators;
 import jdk.incubator.vector.VectorSpecies;
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.Objects;
+
 public class VectorApiAdapter implements Convolution {
 
-    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Accumulator vectors per pass; four keeps them, the tap and the signal load within 16 registers
+    private static final int UNROLL = 4;
 
     @Override
     public double[] with(double[] signal, double[] kernel) {
         SignalTransformer.validate(signal, kernel);
 
-        final double[] paddedSignal = SignalTransformer.padSymmetric(signal, kernel.length - 1);
-        final double[] reversedKernel = reverseKernel(kernel);
-
-        return computeVectorizedConvolution(paddedSignal, reversedKernel, signal.length);
+        final double[] result = new double[signal.length + kernel.length - 1];
+        with(signal, kernel, result, 0);
+        return result;
     }
 
-    private double[] computeVectorizedConvolution(double[] paddedSignal, double[] reversedKernel, int signalLength) {
-        int kernelLength = reversedKernel.length;
-        final int resultLength = signalLength + kernelLength - 1;
-        final double[] result = new double[resultLength];
-        final int padding = kernelLength - 1;
-
-        // Pre-load kernel into vectors for reuse
-        final int vectorLength = SPECIES.length();
+    /**
+     * Outputs whose window lies inside the signal read it directly. Only the {@code K-1} outputs at each edge,
+     * whose windows overhang the signal, go through a small zero-padded copy of the samples they need.
+     */
+    @Override
+    public void with(double[] signal, double[] kernel, double[] output, int outputOffset) {
+        final int resultLength = SignalTransformer.validate(signal, kernel, output, outputOffset);
+        final double[] reversedKernel = reverseKernel(kernel);
+        final int padding = kernel.length - 1;
 
-        for (int outputPos = 0; outputPos < resultLength; outputPos++) {
-            result[outputPos] = computeVectorizedWindowConvolution(paddedSignal, reversedKernel,
-                    outputPos, padding, kernelLength, vectorLength);
+        if (signal.length <= padding) {
+            convolvePadded(signal, reversedKernel, 0, resultLength, output, outputOffset);
+            return;
         }
+        convolvePadded(signal, reversedKernel, 0, padding, output, outputOffset);
+        convolveValid(signal, reversedKernel, signal.length - padding, output, outputOffset + padding);
+        convolvePadded(signal, reversedKernel, signal.length, resultLength, output, outputOffset);
+    }
 
-        return result;
+    // Outputs [from, to) of the full convolution, from a copy of just the samples they read with zeros around it
+    private static void convolvePadded(double[] signal, double[] reversedKernel, int from, int to,
+                                       double[] output, int outputOffset) {
+        int padding = reversedKernel.length - 1;
+        // window[i] is signal[windowStart + i]
+        int windowStart = from - padding;
+        double[] window = new double[to - from + padding];
+        int copyStart = Math.max(0, windowStart);
+        int copyEnd = Math.min(signal.length, to);
+        System.arraycopy(signal, copyStart, window, copyStart - windowStart, copyEnd - copyStart);
+
+        convolveValid(window, reversedKernel, to - from, output, outputOffset + from);
     }
 
-    private double computeVectorizedWindowConvolution(double[] paddedSignal, double[] preparedKernel,
-                                                      int outputPos, int padding, int kernelLength, int vectorLength) {
-        int windowStartPos = outputPos + padding - kernelLength + 1;
-        double sum = 0.0;
+    /**
+     * Writes {@code output[outputOffset + n] = sum_j reversedKernel[j] * paddedSignal[n + j]} for
+     * {@code n < outputCount}. Outputs are computed a vector at a time: each kernel tap is broadcast and
+     * multiplied with the signal vector shifted by that tap, accumulating with FMA in registers, so there is no
+     * horizontal add. The main loop computes {@code UNROLL} vectors of outputs per pass without masks, followed by
+     * single vectors and a scalar tail.
+     */
+    static void convolveValid(double[] paddedSignal, double[] reversedKernel, int outputCount,
+                              double[] output, int outputOffset) {
+        int kernelLength = reversedKernel.length;
+        Objects.checkFromIndexSize(0, outputCount + kernelLength - 1, paddedSignal.length);
+        Objects.checkFromIndexSize(outputOffset, outputCount, output.length);
+
+        int lanes = SPECIES.length();
+        int blockWidth = UNROLL * lanes;
+        int n = 0;
 
-        for (int i = 0; i < kernelLength; i += vectorLength) {
-            int remainingElements = Math.min(vectorLength, kernelLength - i);
-            VectorMask<Double> mask = SPECIES.indexInRange(0, remainingElements);
+        for (; n + blockWidth <= outputCount; n += blockWidth) {
+            DoubleVector acc0 = DoubleVector.zero(SPECIES);
+            DoubleVector acc1 = DoubleVector.zero(SPECIES);
+            DoubleVector acc2 = DoubleVector.zero(SPECIES);
+            DoubleVector acc3 = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < kernelLength; j++) {
+                DoubleVector tap = DoubleVector.broadcast(SPECIES, reversedKernel[j]);
+                int base = n + j;
+                acc0 = DoubleVector.fromArray(SPECIES, paddedSignal, base).fma(tap, acc0);
+                acc1 = DoubleVector.fromArray(SPECIES, paddedSignal, base + lanes).fma(tap, acc1);
+                acc2 = DoubleVector.fromArray(SPECIES, paddedSignal, base + 2 * lanes).fma(tap, acc2);
+                acc3 = DoubleVector.fromArray(SPECIES, paddedSignal, base + 3 * lanes).fma(tap, acc3);
+            }
+            acc0.intoArray(output, outputOffset + n);
+            acc1.intoArray(output, outputOffset + n + lanes);
+            acc2.intoArray(output, outputOffset + n + 2 * lanes);
+            acc3.intoArray(output, outputOffset + n + 3 * lanes);
+        }
 
-            DoubleVector signalVec = DoubleVector.fromArray(SPECIES, paddedSignal, windowStartPos + i, mask);
-            DoubleVector kernelVec = DoubleVector.fromArray(SPECIES, preparedKernel, i, mask);
-            DoubleVector product = signalVec.mul(kernelVec, mask);
-            sum += product.reduceLanes(VectorOperators.ADD, mask);
+        for (; n + lanes <= outputCount; n += lanes) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < kernelLength; j++) {
+                acc = DoubleVector.fromArray(SPECIES, paddedSignal, n + j)
+                        .fma(DoubleVector.broadcast(SPECIES, reversedKernel[j]), acc);
+            }
+            acc.intoArray(output, outputOffset + n);
         }
 
-        return sum;
+        for (; n < outputCount; n++) {
+            double sum = 0.0;
+            for (int j = 0; j < kernelLength; j++) {
+                sum = Math.fma(reversedKernel[j], paddedSignal[n + j], sum);
+            }
+            output[outputOffset + n] = sum;
+        }
     }
 
     double[] reverseKernel(double[] kernel) {
@@ -60,4 +114,4 @@ public class VectorApiAdapter implements Convolution {
         ArrayUtils.reverse(flippedKernel);
         return flippedKernel;
     }
-}
\ No newline at end of file
+}
@@ -27,15 +27,17 @@ public class WavFileReader {
             int bitDepth = format.getSampleSizeInBits();
             int channelCount = format.getChannels();
             int frameSize = format.getFrameSize();
+            boolean floatingPoint = AudioFormat.Encoding.PCM_FLOAT.equals(format.getEncoding());
 
-            return loadAudioData(audioStream, sampleRate, bitDepth, channelCount, frameSize);
+            return loadAudioData(audioStream, sampleRate, bitDepth, floatingPoint, channelCount, frameSize);
         } catch (Exception e) {
             throw new RuntimeException("Failed to load WAV file: " + filePath, e);
         }
     }
 
-    private MultiChannelWavFile loadAudioData(AudioInputStream audioStream, long sampleRate,
-                                              int bitDepth, int channelCount, int frameSize) throws IOException {
+    private MultiChannelWavFile loadAudioData(AudioInputStream audioStream, long sampleRate, int bitDepth,
+                                              boolean floatingPoint, int channelCount, int frameSize)
+            throws IOException {
         int bufferFrames = 8192;
         byte[] buffer = new byte[bufferFrames * frameSize];
 
@@ -60,7 +62,7 @@ public class WavFileReader {
                 }
             }
 
-            convertBytesToSamples(buffer, bytesRead, channels, totalSamples, channelCount, bitDepth);
+            PcmCodec.decode(buffer, 0, bitDepth, floatingPoint, channels, totalSamples, framesRead);
             totalSamples += framesRead;
         }
 
@@ -75,44 +77,6 @@ public class WavFileReader {
         return new MultiChannelWavFile(sampleRate, channels);
     }
 
-    private void convertBytesToSamples(byte[] buffer, int bytesRead, double[][] channels,
-                                       int startSample, int channelCount, int bitDepth) {
-        int bytesPerSample = bitDepth / 8;
-        int frameSize = bytesPerSample * channelCount;
-        int frames = bytesRead / frameSize;
-        double scaleFactor = Math.pow(2, bitDepth - 1) - 1;
-
-        for (int frame = 0; frame < frames; frame++) {
-            for (int channel = 0; channel < channelCount; channel++) {
-                int sampleValue = extractSampleFromBytes(buffer, frame, channel, channelCount, bytesPerSample);
-                channels[channel][startSample + frame] = sampleValue / scaleFactor;
-            }
-        }
-    }
-
-    private int extractSampleFromBytes(byte[] buffer, int frame, int channel, int channelCount, int bytesPerSample) {
-        int offset = (frame * channelCount + channel) * bytesPerSample;
-
-        if (bytesPerSample == 1) {
-            return buffer[offset] - 128;
-        } else if (bytesPerSample == 2) {
-            int value = (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8);
-            if ((value & 0x8000) != 0) {
-                value |= 0xFFFF0000;
-            }
-            return value;
-        } else if (bytesPerSample == 3) {
-            int value = (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8)
-                        | ((buffer[offset + 2] & 0xFF) << 16);
-            if ((value & 0x800000) != 0) {
-                value |= 0xFF000000;
-            }
-            return value;
-        }
-
-        throw new RuntimeException("Unsupported bit depth: " + (bytesPerSample * 8));
-    }
-
     public record MultiChannelWavFile(long sampleRate, double[][] channels) {
         public int channelCount() {
             return channels.length;
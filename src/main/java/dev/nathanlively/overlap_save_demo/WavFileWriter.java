@@ -58,25 +58,7 @@ public class WavFileWriter {
         int bytesPerSample = bitDepth / 8;
         byte[] buffer = new byte[sampleCount * channelCount * bytesPerSample];
 
-        double scaleFactor = Math.pow(2, bitDepth - 1) - 1;
-        int bufferIndex = 0;
-
-        for (int i = 0; i < sampleCount; i++) {
-            for (double[] channel : channels) {
-                double sampleValue = channel[i];
-                int intValue = (int) (sampleValue * scaleFactor);
-
-                // Clamp to valid range
-                int maxValue = (int) scaleFactor;
-                int minValue = -maxValue - 1;
-                intValue = Math.max(minValue, Math.min(maxValue, intValue));
-
-                for (int byteIndex = 0; byteIndex < bytesPerSample; byteIndex++) {
-                    buffer[bufferIndex++] = (byte) ((intValue >>> (8 * byteIndex)) & 0xFF);
-                }
-            }
-        }
-
+        PcmCodec.encode(channels, 0, bitDepth, false, buffer, 0, sampleCount);
         return buffer;
     }
-}
\ No newline at end of file
+}
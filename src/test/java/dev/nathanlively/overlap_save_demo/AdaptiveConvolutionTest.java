@@ -0,0 +1,135 @@
+package dev.nathanlively.overlap_save_demo;
+
+import dev.nathanlively.overlap_save_demo.ConvolutionCostModel.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConvolutionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Comparator<Double> doubleComparator() {
+        return (a, b) -> Math.abs(a - b) < 1.0E-9 ? 0 : Double.compare(a, b);
+    }
+
+    @Test
+    void shortKernel_usesDirectForm() {
+        AdaptiveConvolution convolution = new AdaptiveConvolution(ConvolutionCostModel.defaults());
+
+        assertThat(convolution.select(4096, 3)).isEqualTo(Engine.DIRECT);
+    }
+
+    @Test
+    void longSignalAndKernel_useOverlapSave() {
+        AdaptiveConvolution convolution = new AdaptiveConvolution(ConvolutionCostModel.defaults());
+        Engine expected = ForkJoinPool.commonPool().getParallelism() > 1
+                ? Engine.PARALLEL_OVERLAP_SAVE
+                : Engine.OVERLAP_SAVE;
+
+        assertThat(convolution.select(480_000, 8192)).isEqualTo(expected);
+    }
+
+    @Test
+    void fewBlocks_stayOnSerialOverlapSave() {
+        AdaptiveConvolution convolution = new AdaptiveConvolution(ConvolutionCostModel.defaults());
+
+        assertThat(convolution.select(3000, 700)).isEqualTo(Engine.OVERLAP_SAVE);
+    }
+
+    @Test
+    void cheapPartitionedEngine_winsForLongKernels() {
+        AdaptiveConvolution convolution = new AdaptiveConvolution(
+                ConvolutionCostModel.of(costs(0.25, 1.5, 1.0, 1.25, 0.1)));
+
+        assertThat(convolution.select(480_000, 8192)).isEqualTo(Engine.UNIFORM_PARTITIONED);
+    }
+
+    @Test
+    void everySelection_matchesOverlapSave() {
+        AdaptiveConvolution convolution = new AdaptiveConvolution(ConvolutionCostModel.defaults());
+        Random random = new Random(21);
+        int[][] shapes = {{5, 3}, {1000, 8}, {3000, 700}, {20000, 2048}};
+
+        for (int[] shape : shapes) {
+            double[] signal = TestSignals.random(shape[0], random);
+            double[] kernel = TestSignals.random(shape[1], random);
+
+            double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+            double[] actual = convolution.with(signal, kernel);
+
+            assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void storedCalibration_isReloadedWithoutRecalibrating() {
+        Path file = tempDir.resolve("calibration.properties");
+        ConvolutionCostModel stored = ConvolutionCostModel.of(costs(0.125, 2.5, 0.75, 0.5, 1.0));
+        stored.store(file);
+
+        ConvolutionCostModel loaded = ConvolutionCostModel.loadOrCalibrate(file);
+
+        assertThat(loaded.nanosPerOperation(Engine.DIRECT)).isEqualTo(0.125);
+        assertThat(loaded.nanosPerOperation(Engine.FREQUENCY_DOMAIN)).isEqualTo(2.5);
+        assertThat(loaded.nanosPerOperation(Engine.OVERLAP_SAVE)).isEqualTo(0.75);
+        assertThat(loaded.nanosPerOperation(Engine.PARALLEL_OVERLAP_SAVE)).isEqualTo(0.5);
+        assertThat(loaded.nanosPerOperation(Engine.UNIFORM_PARTITIONED)).isEqualTo(1.0);
+    }
+
+    @Test
+    void calibrationFromAnotherHost_isIgnored() throws IOException {
+        Path file = tempDir.resolve("calibration.properties");
+        Files.writeString(file, """
+                host=some-other-machine
+                DIRECT.nanosPerOperation=0.125
+                FREQUENCY_DOMAIN.nanosPerOperation=2.5
+                OVERLAP_SAVE.nanosPerOperation=0.75
+                PARALLEL_OVERLAP_SAVE.nanosPerOperation=0.5
+                UNIFORM_PARTITIONED.nanosPerOperation=1.0
+                """);
+
+        assertThat(ConvolutionCostModel.load(file)).isNull();
+    }
+
+    @Test
+    void calibrationFromOlderEngineVersion_isIgnored() throws IOException {
+        Path file = tempDir.resolve("calibration.properties");
+        ConvolutionCostModel.of(costs(0.125, 2.5, 0.75, 0.5, 1.0)).store(file);
+        String stored = Files.readString(file);
+        Files.writeString(file, stored.replace("host=v" + ConvolutionCostModel.VERSION + "/",
+                "host=v" + (ConvolutionCostModel.VERSION - 1) + "/"));
+
+        assertThat(ConvolutionCostModel.load(file)).isNull();
+        assertThat(Files.readString(file)).isNotEqualTo(stored);
+    }
+
+    @Test
+    void nonPositiveCost_isRejected() {
+        assertThatThrownBy(() -> ConvolutionCostModel.of(costs(0.125, 0, 0.75, 0.5, 1.0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Map<Engine, Double> costs(double direct, double frequencyDomain, double overlapSave,
+                                      double parallelOverlapSave, double uniformPartitioned) {
+        Map<Engine, Double> costs = new EnumMap<>(Engine.class);
+        costs.put(Engine.DIRECT, direct);
+        costs.put(Engine.FREQUENCY_DOMAIN, frequencyDomain);
+        costs.put(Engine.OVERLAP_SAVE, overlapSave);
+        costs.put(Engine.PARALLEL_OVERLAP_SAVE, parallelOverlapSave);
+        costs.put(Engine.UNIFORM_PARTITIONED, uniformPartitioned);
+        return costs;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.nathanlively.overlap_save_demo;
+
+import dev.nathanlively.overlap_save_demo.StreamingWavWriter.SampleFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ConvolutionPipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void stereoFile_matchesConvolvingEachChannel() throws IOException {
+        double[] kernel = TestSignals.random(1500, 7);
+        // Scaled down so the wet file stays within full scale
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] /= kernel.length;
+        }
+        WavFileReader.MultiChannelWavFile source = new WavFileReader().loadFromClasspath("LakeMerrittBART.wav");
+        Path output = tempDir.resolve("wet.wav");
+
+        long frames = new ConvolutionPipeline(kernel).process(resource("LakeMerrittBART.wav"), output,
+                SampleFormat.FLOAT_32);
+
+        assertThat(frames).isEqualTo(source.length() + kernel.length - 1L);
+        try (MappedWavReader result = MappedWavReader.open(output)) {
+            double[][] actual = result.window(0, (int) frames);
+            for (int c = 0; c < source.channelCount(); c++) {
+                double[] expected = new OverlapSaveAdapter().with(source.getChannel(c), kernel);
+                for (int i = 0; i < expected.length; i++) {
+                    assertThat(actual[c][i]).isCloseTo(expected[i], within(1e-5));
+                }
+            }
+        }
+    }
+
+    @Test
+    void tinyBlocksAndQueues_produceTheSameFile() throws IOException {
+        double[] kernel = {0.5, 0.3, 0.2};
+        Path roomy = tempDir.resolve("roomy.wav");
+        Path cramped = tempDir.resolve("cramped.wav");
+
+        new ConvolutionPipeline(kernel).process(resource("EchoBridge.wav"), roomy);
+        new ConvolutionPipeline(kernel, 37, 1).process(resource("EchoBridge.wav"), cramped);
+
+        try (MappedWavReader expected = MappedWavReader.open(roomy);
+             MappedWavReader actual = MappedWavReader.open(cramped)) {
+            assertThat(actual.bitDepth()).isEqualTo(24);
+            assertThat(actual.frameCount()).isEqualTo(expected.frameCount());
+            double[][] expectedSamples = expected.window(0, (int) expected.frameCount());
+            double[][] actualSamples = actual.window(0, (int) actual.frameCount());
+            for (int c = 0; c < expectedSamples.length; c++) {
+                assertThat(actualSamples[c]).isEqualTo(expectedSamples[c]);
+            }
+        }
+    }
+
+    @Test
+    void unreadableInput_isRejected() {
+        Path missing = tempDir.resolve("missing.wav");
+
+        assertThatThrownBy(() -> new ConvolutionPipeline(new double[]{1.0}).process(missing,
+                tempDir.resolve("out.wav")))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("missing.wav");
+    }
+
+    private Path resource(String name) throws IOException {
+        return new ClassPathResource(name).getFile().toPath();
+    }
+}
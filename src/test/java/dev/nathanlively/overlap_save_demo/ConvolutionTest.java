@@ -15,9 +15,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 
 class ConvolutionTest {
@@ -26,7 +28,9 @@ class ConvolutionTest {
 
     static Stream<Convolution> allImplementations() {
         return Stream.of(new ApacheAdapter(), new TimeDomainAdapter(),
-                new FrequencyDomainAdapter(), new OverlapSaveAdapter(), new VectorApiAdapter());
+                new FrequencyDomainAdapter(), new OverlapSaveAdapter(), new VectorApiAdapter(),
+                new UniformPartitionedAdapter(), new NonUniformPartitionedAdapter(),
+                new ParallelOverlapSaveAdapter());
     }
 
     @ParameterizedTest
@@ -204,6 +208,39 @@ class ConvolutionTest {
         assertThat(result[2]).isEqualTo(0.05, within(precision));
     }
 
+    @ParameterizedTest
+    @MethodSource("allImplementations")
+    void withOutput_writesResultAtOffsetOnly(Convolution convolution) {
+        Random random = new Random(24);
+        // A signal longer than the kernel and one shorter, so both edges and the interior are covered
+        for (int signalLength : new int[]{1000, 30}) {
+            double[] signal = random.doubles(signalLength, -1, 1).toArray();
+            double[] kernel = random.doubles(100, -1, 1).toArray();
+            double[] expected = MathArrays.convolve(signal, kernel);
+            double[] output = new double[expected.length + 20];
+            Arrays.fill(output, -7);
+
+            convolution.with(signal, kernel, output, 5);
+
+            for (int i = 0; i < expected.length; i++) {
+                assertThat(output[5 + i]).isCloseTo(expected[i], within(1e-12));
+            }
+            for (int i : new int[]{0, 4, 5 + expected.length, output.length - 1}) {
+                assertThat(output[i]).isEqualTo(-7.0);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("allImplementations")
+    void withOutput_rejectsTooSmallOutput(Convolution convolution) {
+        double[] signal = {1, 2, 3};
+        double[] kernel = {1, 1};
+
+        assertThatThrownBy(() -> convolution.with(signal, kernel, new double[5], 2))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
     @Disabled
     @Test
     void apache() throws Exception {
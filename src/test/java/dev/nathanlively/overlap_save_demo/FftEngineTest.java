@@ -0,0 +1,108 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.numbers.complex.Complex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FftEngineTest {
+    private static final double precision = 1e-9;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 64, 1024})
+    void forward_matchesApacheTransform(int size) {
+        double[] signal = TestSignals.random(size, size);
+        Complex[] expected = SignalTransformer.fft(signal);
+
+        double[] real = signal.clone();
+        double[] imaginary = new double[size];
+        FftEngine.forSize(size).forward(real, imaginary);
+
+        for (int i = 0; i < size; i++) {
+            assertThat(real[i]).isCloseTo(expected[i].getReal(), within(precision));
+            assertThat(imaginary[i]).isCloseTo(expected[i].getImaginary(), within(precision));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 16, 512})
+    void inverse_restoresOriginalSignal(int size) {
+        Random random = new Random(size);
+        double[] originalReal = TestSignals.random(size, random);
+        double[] originalImaginary = TestSignals.random(size, random);
+        FftEngine fft = FftEngine.forSize(size);
+
+        double[] real = originalReal.clone();
+        double[] imaginary = originalImaginary.clone();
+        fft.forward(real, imaginary);
+        fft.inverse(real, imaginary);
+
+        assertThat(real).containsExactly(originalReal, within(precision));
+        assertThat(imaginary).containsExactly(originalImaginary, within(precision));
+    }
+
+    @Test
+    void interleaved_matchesSplitLayout() {
+        int size = 256;
+        Random random = new Random(1);
+        double[] real = TestSignals.random(size, random);
+        double[] imaginary = TestSignals.random(size, random);
+        double[] interleaved = new double[2 * size];
+        for (int i = 0; i < size; i++) {
+            interleaved[2 * i] = real[i];
+            interleaved[2 * i + 1] = imaginary[i];
+        }
+
+        FftEngine fft = FftEngine.forSize(size);
+        fft.forward(real, imaginary);
+        fft.forwardInterleaved(interleaved);
+
+        for (int i = 0; i < size; i++) {
+            assertThat(interleaved[2 * i]).isEqualTo(real[i]);
+            assertThat(interleaved[2 * i + 1]).isEqualTo(imaginary[i]);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 16, 32, 64, 128, 1024, 8192})
+    void vectorizedPasses_matchScalarBitForBit(int size) {
+        Random random = new Random(size);
+        double[] real = TestSignals.random(size, random);
+        double[] imaginary = TestSignals.random(size, random);
+        double[] interleaved = new double[2 * size];
+        for (int i = 0; i < size; i++) {
+            interleaved[2 * i] = real[i];
+            interleaved[2 * i + 1] = imaginary[i];
+        }
+        FftEngine scalar = new FftEngine(size, false);
+        FftEngine vectorized = new FftEngine(size, true);
+
+        double[] scalarReal = real.clone();
+        double[] scalarImaginary = imaginary.clone();
+        double[] scalarInterleaved = interleaved.clone();
+        scalar.forward(scalarReal, scalarImaginary);
+        scalar.inverseInterleaved(scalarInterleaved);
+        vectorized.forward(real, imaginary);
+        vectorized.inverseInterleaved(interleaved);
+
+        assertThat(real).isEqualTo(scalarReal);
+        assertThat(imaginary).isEqualTo(scalarImaginary);
+        assertThat(interleaved).isEqualTo(scalarInterleaved);
+    }
+
+    @Test
+    void forSize_reusesTablesPerSize() {
+        assertThat(FftEngine.forSize(128)).isSameAs(FftEngine.forSize(128));
+    }
+
+    @Test
+    void nonPowerOfTwoSize_isRejected() {
+        assertThatThrownBy(() -> FftEngine.forSize(12)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
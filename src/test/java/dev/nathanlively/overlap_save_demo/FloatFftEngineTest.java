@@ -0,0 +1,58 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FloatFftEngineTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8, 16, 64, 1024})
+    void vectorizedPasses_matchScalarBitForBit(int size) {
+        float[] data = TestSignals.randomFloats(2 * size, size);
+        float[] scalarData = data.clone();
+
+        new FloatFftEngine(size, false).forwardInterleaved(scalarData);
+        new FloatFftEngine(size, true).forwardInterleaved(data);
+
+        assertThat(data).isEqualTo(scalarData);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 8, 256, 4096})
+    void realForward_matchesDoubleEngine(int size) {
+        float[] samples = TestSignals.randomFloats(size, size);
+        double[] expected = new double[size + 2];
+        float[] actual = new float[size + 2];
+        for (int i = 0; i < size; i++) {
+            expected[i] = samples[i];
+            actual[i] = samples[i];
+        }
+
+        RealFftEngine.forSize(size).forward(expected);
+        FloatRealFftEngine.forSize(size).forward(actual);
+
+        double tolerance = 1e-6 * size;
+        for (int i = 0; i < expected.length; i++) {
+            assertThat((double) actual[i]).isCloseTo(expected[i], within(tolerance));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 64, 4096})
+    void realInverse_restoresSamples(int size) {
+        float[] samples = TestSignals.randomFloats(size, size);
+        float[] data = new float[size + 2];
+        System.arraycopy(samples, 0, data, 0, size);
+        FloatRealFftEngine fft = FloatRealFftEngine.forSize(size);
+
+        fft.forward(data);
+        fft.inverse(data);
+
+        for (int i = 0; i < size; i++) {
+            assertThat((double) data[i]).isCloseTo(samples[i], within(1e-5));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FloatOverlapSaveAdapterTest {
+
+    // -100 dB relative to the output peak, below the quantization step of 16-bit output
+    private static final double MAX_RELATIVE_ERROR = 1e-5;
+
+    @Test
+    void impulseConvolution_returnsIdentity() {
+        float[] actual = new FloatOverlapSaveAdapter().with(new float[]{1}, new float[]{1});
+
+        assertThat(actual).containsExactly(1.0f);
+    }
+
+    @Test
+    void randomSignal_staysWithinErrorBudgetOfDoublePath() {
+        Random random = new Random(31);
+        double[] signal = roundedToFloat(TestSignals.random(48000, random));
+        double[] kernel = roundedToFloat(TestSignals.random(1024, random));
+
+        assertWithinErrorBudget(signal, kernel);
+    }
+
+    @Test
+    void roomImpulseResponse_staysWithinErrorBudgetOfDoublePath() {
+        WavFileReader reader = new WavFileReader();
+        double[] impulseResponse = reader.loadFromClasspath("EchoBridge.wav").getChannel(0);
+        double[] signal = roundedToFloat(TestSignals.random(8192, 32));
+
+        assertWithinErrorBudget(signal, impulseResponse);
+    }
+
+    @Test
+    void emptySignal_isRejected() {
+        assertThatThrownBy(() -> new FloatOverlapSaveAdapter().with(new float[0], new float[]{1}))
+                .isInstanceOf(NoDataException.class);
+    }
+
+    private void assertWithinErrorBudget(double[] signal, double[] kernel) {
+        double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+        float[] actual = new FloatOverlapSaveAdapter().with(toFloat(signal), toFloat(kernel));
+
+        // Compare against the double convolution of the same float-rounded inputs
+        assertThat(actual.length).isEqualTo(expected.length);
+        double peak = 0;
+        double maxError = 0;
+        for (int i = 0; i < expected.length; i++) {
+            peak = Math.max(peak, Math.abs(expected[i]));
+            maxError = Math.max(maxError, Math.abs(actual[i] - expected[i]));
+        }
+        assertThat(maxError / peak).isLessThan(MAX_RELATIVE_ERROR);
+    }
+
+    private float[] toFloat(double[] values) {
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    // Float-representable values, so the double path sees exactly the same inputs
+    private double[] roundedToFloat(double[] signal) {
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = (float) signal[i];
+        }
+        return signal;
+    }
+}
@@ -0,0 +1,107 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ImpulseResponseTrimmerTest {
+
+    @Test
+    void noiseTail_isCutWhereDecayMeetsFloor() {
+        // 60 dB of decay every 12000 samples into a floor 80 dB below the start, reached near sample 16000
+        double[] impulseResponse = decayIntoNoise(new Random(23), 96_000, 12_000, 1e-4);
+
+        ImpulseResponseTrimmer.Result result = new ImpulseResponseTrimmer().trim(impulseResponse);
+
+        assertThat(result.decayPoint()).isBetween(14_000, 18_000);
+        assertThat(result.trimmedLength()).isEqualTo(result.decayPoint());
+        assertThat(result.reduction()).isGreaterThan(0.8);
+        assertThat(result.errorDb()).isLessThanOrEqualTo(ImpulseResponseTrimmer.DEFAULT_ERROR_BUDGET_DB);
+        assertThat(result.noiseFloorDb()).isLessThan(-60.0);
+    }
+
+    @Test
+    void outputDifference_matchesReportedError() {
+        Random random = new Random(24);
+        double[] impulseResponse = decayIntoNoise(random, 48_000, 6_000, 1e-4);
+        double[] signal = new double[24_000];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = random.nextGaussian();
+        }
+
+        ImpulseResponseTrimmer.Result result = new ImpulseResponseTrimmer(-80, 256).trim(impulseResponse);
+        double[] original = new OverlapSaveAdapter().with(signal, impulseResponse);
+        double[] trimmed = new OverlapSaveAdapter().with(signal, result.kernel());
+
+        double errorEnergy = 0;
+        double outputEnergy = 0;
+        for (int i = 0; i < original.length; i++) {
+            double difference = original[i] - (i < trimmed.length ? trimmed[i] : 0);
+            errorEnergy += difference * difference;
+            outputEnergy += original[i] * original[i];
+        }
+        assertThat(result.errorDb()).isLessThanOrEqualTo(-80.0);
+        assertThat(10 * Math.log10(errorEnergy / outputEnergy)).isCloseTo(result.errorDb(), within(1.0));
+    }
+
+    @Test
+    void tighterBudget_keepsMoreOfTheTail() {
+        double[] impulseResponse = decayIntoNoise(new Random(25), 96_000, 12_000, 1e-4);
+
+        ImpulseResponseTrimmer.Result loose = new ImpulseResponseTrimmer(-40, 256).trim(impulseResponse);
+        ImpulseResponseTrimmer.Result tight = new ImpulseResponseTrimmer(-80, 256).trim(impulseResponse);
+
+        assertThat(tight.trimmedLength()).isGreaterThan(loose.trimmedLength());
+        assertThat(tight.errorDb()).isLessThanOrEqualTo(-80.0);
+    }
+
+    @Test
+    void cut_isFadedAndHeadIsUntouched() {
+        double[] impulseResponse = decayIntoNoise(new Random(26), 20_000, 3_000, 1e-4);
+
+        ImpulseResponseTrimmer.Result result = new ImpulseResponseTrimmer(-40, 64).trim(impulseResponse);
+        double[] kernel = result.kernel();
+        int fadeStart = kernel.length - 64;
+
+        for (int i = 0; i < fadeStart; i++) {
+            assertThat(kernel[i]).isEqualTo(impulseResponse[i]);
+        }
+        assertThat(Math.abs(kernel[kernel.length - 1])).isLessThan(Math.abs(impulseResponse[kernel.length - 1]) * 0.01);
+    }
+
+    @Test
+    void trailingZerosAndEchoBridge_areTrimmed() {
+        double[] padded = new double[1000];
+        padded[0] = 1;
+        padded[1] = 0.5;
+        assertThat(new ImpulseResponseTrimmer(-60, 0).trim(padded).kernel()).containsExactly(1, 0.5);
+
+        double[] echoBridge = new WavFileReader().loadFromClasspath("EchoBridge.wav").getChannel(0);
+        ImpulseResponseTrimmer.Result result = new ImpulseResponseTrimmer().trim(echoBridge);
+        assertThat(result.trimmedLength()).isLessThan(echoBridge.length);
+        assertThat(result.errorDb()).isLessThanOrEqualTo(ImpulseResponseTrimmer.DEFAULT_ERROR_BUDGET_DB);
+    }
+
+    @Test
+    void invalidInputs_areRejected() {
+        ImpulseResponseTrimmer trimmer = new ImpulseResponseTrimmer();
+        assertThatThrownBy(() -> trimmer.trim(new double[0])).isInstanceOf(NoDataException.class);
+        assertThatThrownBy(() -> new ImpulseResponseTrimmer(0, 256)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ImpulseResponseTrimmer(-60, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Exponentially decaying Gaussian noise over a constant noise floor, the shape of a measured room response
+    private double[] decayIntoNoise(Random random, int length, int samplesPer60Db, double noiseLevel) {
+        double decayRate = Math.log(1000) / samplesPer60Db;
+        double[] impulseResponse = new double[length];
+        for (int i = 0; i < length; i++) {
+            impulseResponse[i] = random.nextGaussian() * Math.exp(-decayRate * i) + noiseLevel * random.nextGaussian();
+        }
+        return impulseResponse;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedWavReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pcm24Stereo_matchesWavFileReader() throws IOException {
+        WavFileReader.MultiChannelWavFile expected = new WavFileReader().loadFromClasspath("EchoBridge.wav");
+
+        try (MappedWavReader reader = MappedWavReader.open(resource("EchoBridge.wav"))) {
+            assertThat(reader.sampleRate()).isEqualTo(expected.sampleRate());
+            assertThat(reader.channelCount()).isEqualTo(expected.channelCount());
+            assertThat(reader.bitDepth()).isEqualTo(24);
+            assertThat(reader.frameCount()).isEqualTo((long) expected.length());
+
+            double[][] window = reader.window(0, expected.length());
+            for (int c = 0; c < expected.channelCount(); c++) {
+                assertThat(window[c]).isEqualTo(expected.getChannel(c));
+            }
+        }
+    }
+
+    @Test
+    void blocks_streamThroughConvolverLikeTheWholeSignal() throws IOException {
+        double[] kernel = {0.5, 0.3, 0.2};
+        double[] whole = new WavFileReader().loadFromClasspath("LakeMerrittBART.wav").getChannel(1);
+        double[] expected = new double[whole.length];
+        new StreamingConvolver(kernel).process(whole, expected);
+
+        StreamingConvolver convolver = new StreamingConvolver(kernel);
+        double[] actual = new double[whole.length];
+        try (MappedWavReader reader = MappedWavReader.open(resource("LakeMerrittBART.wav"))) {
+            Iterator<MappedWavReader.Block> blocks = reader.blocks(1000);
+            while (blocks.hasNext()) {
+                MappedWavReader.Block block = blocks.next();
+                double[] output = new double[block.frameCount()];
+                convolver.process(block.channels()[1], 0, block.frameCount(), output);
+                System.arraycopy(output, 0, actual, (int) block.startFrame(), block.frameCount());
+            }
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void extensibleFloatFile_withOddSizedChunk_isParsed() throws IOException {
+        float[] samples = {0.25f, -0.5f, 1.0f, -1.0f, 0.125f, 0.0f};
+        ByteBuffer data = ByteBuffer.allocate(samples.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float sample : samples) {
+            data.putFloat(sample);
+        }
+        Path file = tempDir.resolve("float.wav");
+        Files.write(file, wav(MappedWavReader.FORMAT_EXTENSIBLE, MappedWavReader.FORMAT_IEEE_FLOAT, 2, 32,
+                data.array()));
+
+        try (MappedWavReader reader = MappedWavReader.open(file)) {
+            assertThat(reader.floatingPoint()).isTrue();
+            assertThat(reader.frameCount()).isEqualTo(3L);
+            double[][] window = reader.window(1, 10);
+            assertThat(window[0]).containsExactly(1.0, 0.125);
+            assertThat(window[1]).containsExactly(-1.0, 0.0);
+        }
+    }
+
+    @Test
+    void float64File_keepsFullPrecision() throws IOException {
+        double[] samples = {0.1, -1e-12, 0.7071067811865476, -2.5};
+        ByteBuffer data = ByteBuffer.allocate(samples.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (double sample : samples) {
+            data.putDouble(sample);
+        }
+        Path file = tempDir.resolve("float64.wav");
+        Files.write(file, wav(MappedWavReader.FORMAT_IEEE_FLOAT, MappedWavReader.FORMAT_IEEE_FLOAT, 1, 64,
+                data.array()));
+
+        try (MappedWavReader reader = MappedWavReader.open(file)) {
+            assertThat(reader.window(0, 4)[0]).containsExactly(samples);
+        }
+    }
+
+    @Test
+    void pcm16File_usesWavFileReaderScaling() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN);
+        data.putShort((short) 32767).putShort((short) -32767).putShort((short) 0);
+        Path file = tempDir.resolve("pcm16.wav");
+        Files.write(file, wav(MappedWavReader.FORMAT_PCM, MappedWavReader.FORMAT_PCM, 1, 16, data.array()));
+
+        try (MappedWavReader reader = MappedWavReader.open(file)) {
+            double[] samples = new double[3];
+            reader.read(0, 0, samples, 0, 3);
+            assertThat(samples).containsExactly(1.0, -1.0, 0.0);
+        }
+    }
+
+    @Test
+    void nonWavFile_isRejected() throws IOException {
+        Path file = tempDir.resolve("notes.txt");
+        Files.writeString(file, "this is not a RIFF file");
+
+        assertThatThrownBy(() -> MappedWavReader.open(file)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Path resource(String name) throws IOException {
+        return new ClassPathResource(name).getFile().toPath();
+    }
+
+    // Minimal RIFF/WAVE with an odd-sized LIST chunk before the data to exercise chunk padding
+    private byte[] wav(int formatTag, int subFormat, int channels, int bitDepth, byte[] samples) {
+        boolean extensible = formatTag == MappedWavReader.FORMAT_EXTENSIBLE;
+        int fmtSize = extensible ? 40 : 16;
+        byte[] list = "LIST-odd".getBytes(StandardCharsets.US_ASCII);
+        int listSize = 7;
+        int total = 12 + 8 + fmtSize + 8 + listSize + 1 + 8 + samples.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(total - 8)
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII));
+        buffer.put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(fmtSize)
+                .putShort((short) formatTag).putShort((short) channels).putInt(44100)
+                .putInt(44100 * channels * bitDepth / 8).putShort((short) (channels * bitDepth / 8))
+                .putShort((short) bitDepth);
+        if (extensible) {
+            buffer.putShort((short) 22).putShort((short) bitDepth).putInt(0)
+                    .putShort((short) subFormat).put(new byte[14]);
+        }
+        buffer.put("LIST".getBytes(StandardCharsets.US_ASCII)).putInt(listSize).put(list, 0, listSize).put((byte) 0);
+        buffer.put("data".getBytes(StandardCharsets.US_ASCII)).putInt(samples.length).put(samples);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,98 @@
+package dev.nathanlively.overlap_save_demo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeteredConvolutionTest {
+
+    @Test
+    void overlapSave_recordsTimerSamplesBlocksAndFftSize() {
+        Random random = new Random(25);
+        double[] signal = TestSignals.random(20_000, random);
+        double[] kernel = TestSignals.random(300, random);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        double[] result = new MeteredConvolution(new OverlapSaveAdapter(), registry).with(signal, kernel);
+
+        assertThat(result).isEqualTo(new OverlapSaveAdapter().with(signal, kernel));
+        assertThat(registry.get("convolution.duration")
+                .tag("implementation", "OverlapSaveAdapter")
+                .tag("signal.size", "<=64k")
+                .tag("kernel.size", "<=1k")
+                .timer().count()).isEqualTo(1L);
+        assertThat(registry.get("convolution.samples").counter().count()).isEqualTo(20_000.0);
+        // 2048-point blocks carry 1749 new samples each, and the 20299-sample result takes 12 of them
+        assertThat(registry.get("convolution.fft.size").summary().max()).isEqualTo(2048.0);
+        assertThat(registry.get("convolution.blocks").counter().count()).isEqualTo(12.0);
+    }
+
+    @Test
+    void batch_countsBlocksPerSignal() {
+        Random random = new Random(26);
+        double[] kernel = TestSignals.random(100, random);
+        List<double[]> signals = List.of(TestSignals.random(5_000, random), TestSignals.random(500, random));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MeteredConvolution metered = new MeteredConvolution(new OverlapSaveAdapter(), registry);
+
+        List<double[]> results = metered.withAll(signals, kernel);
+
+        assertThat(results.get(1)).isEqualTo(new OverlapSaveAdapter().with(signals.get(1), kernel));
+        assertThat(registry.get("convolution.duration").timer().count()).isEqualTo(1L);
+        assertThat(registry.get("convolution.samples").counter().count()).isEqualTo(5_500.0);
+        // 13 blocks of 512 points for the long signal and 4 of 256 points for the short one
+        assertThat(registry.get("convolution.fft.size").summary().count()).isEqualTo(2L);
+        assertThat(registry.get("convolution.fft.size").summary().max()).isEqualTo(512.0);
+        assertThat(registry.get("convolution.blocks").counter().count()).isEqualTo(17.0);
+    }
+
+    @Test
+    void timeDomain_recordsNoBlocks() {
+        Random random = new Random(27);
+        double[] signal = TestSignals.random(2_000, random);
+        double[] kernel = TestSignals.random(32, random);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        double[] output = new double[signal.length + kernel.length + 3];
+        new MeteredConvolution(new TimeDomainAdapter(), registry).with(signal, kernel, output, 3);
+
+        assertThat(registry.get("convolution.duration").tag("implementation", "TimeDomainAdapter").timer().count())
+                .isEqualTo(1L);
+        assertThat(registry.get("convolution.blocks").counter().count()).isEqualTo(0.0);
+        assertThat(registry.find("convolution.fft.size").summary().count()).isEqualTo(0L);
+    }
+
+    @Test
+    void adaptive_isReportedAsTheSelectedEngine() {
+        Random random = new Random(28);
+        double[] signal = TestSignals.random(50_000, random);
+        double[] kernel = TestSignals.random(2_000, random);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConvolution adaptive = new AdaptiveConvolution(ConvolutionCostModel.defaults());
+
+        new MeteredConvolution(adaptive, registry).with(signal, kernel);
+
+        String selected = adaptive.select(signal.length, kernel.length).convolution().getClass().getSimpleName();
+        assertThat(registry.get("convolution.duration").tag("implementation", selected).timer().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void autoConfiguration_wrapsConvolutionBeansUnlessDisabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(ConvolutionMetricsAutoConfiguration.class))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(Convolution.class, OverlapSaveAdapter::new);
+
+        runner.run(context -> assertThat(context.getBean(Convolution.class)).isInstanceOf(MeteredConvolution.class));
+        runner.withPropertyValues("convolution.metrics.enabled=false")
+                .run(context -> assertThat(context.getBean(Convolution.class)).isInstanceOf(OverlapSaveAdapter.class));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class MixedRadixFftEngineTest {
+    private static final double precision = 1e-9;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 5, 6, 12, 15, 45, 60, 240, 480, 960, 1000})
+    void forward_matchesDirectDft(int size) {
+        double[] data = TestSignals.random(2 * size, size);
+        double[] expected = directDft(data, size);
+
+        MixedRadixFftEngine.forSize(size).forwardInterleaved(data);
+
+        assertThat(data).containsExactly(expected, within(precision * size));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 20, 360, 1536})
+    void inverse_restoresOriginalSignal(int size) {
+        double[] original = TestSignals.random(2 * size, size);
+        MixedRadixFftEngine fft = MixedRadixFftEngine.forSize(size);
+
+        double[] data = original.clone();
+        fft.forwardInterleaved(data);
+        fft.inverseInterleaved(data);
+
+        assertThat(data).containsExactly(original, within(precision));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {6, 30, 960, 1920})
+    void realFft_ofSmoothSize_matchesDirectDft(int size) {
+        Random random = new Random(size);
+        RealFftEngine fft = RealFftEngine.forSize(size);
+        double[] samples = TestSignals.random(size, random);
+        double[] complex = new double[2 * size];
+        for (int i = 0; i < size; i++) {
+            complex[2 * i] = samples[i];
+        }
+        double[] expected = directDft(complex, size);
+
+        double[] buffer = Arrays.copyOf(samples, fft.bufferLength());
+        fft.forward(buffer);
+        for (int i = 0; i < fft.bufferLength(); i++) {
+            assertThat(buffer[i]).isCloseTo(expected[i], within(precision * size));
+        }
+
+        fft.inverse(buffer);
+        for (int i = 0; i < size; i++) {
+            assertThat(buffer[i]).isCloseTo(samples[i], within(precision));
+        }
+    }
+
+    @Test
+    void nextSupportedSize_skipsLargePrimeFactors() {
+        assertThat(MixedRadixFftEngine.nextSupportedSize(7)).isEqualTo(8);
+        assertThat(MixedRadixFftEngine.nextSupportedSize(1025)).isEqualTo(1080);
+        assertThat(RealFftEngine.nextSupportedSize(961)).isEqualTo(972);
+        assertThat(RealFftEngine.nextSupportedSize(480)).isEqualTo(480);
+        assertThat(RealFftEngine.isSupportedSize(15)).isFalse();
+    }
+
+    @Test
+    void unsupportedSize_isRejected() {
+        assertThatThrownBy(() -> MixedRadixFftEngine.forSize(14))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RealFftEngine.forSize(42))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[] directDft(double[] data, int size) {
+        double[] result = new double[2 * size];
+        for (int k = 0; k < size; k++) {
+            for (int n = 0; n < size; n++) {
+                double angle = -2.0 * Math.PI * ((long) k * n % size) / size;
+                double cos = Math.cos(angle);
+                double sin = Math.sin(angle);
+                result[2 * k] += data[2 * n] * cos - data[2 * n + 1] * sin;
+                result[2 * k + 1] += data[2 * n] * sin + data[2 * n + 1] * cos;
+            }
+        }
+        return result;
+    }
+}
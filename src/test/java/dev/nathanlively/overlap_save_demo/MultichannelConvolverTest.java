@@ -0,0 +1,83 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultichannelConvolverTest {
+
+    private static Comparator<Double> doubleComparator() {
+        return (a, b) -> Math.abs(a - b) < 1.0E-9 ? 0 : Double.compare(a, b);
+    }
+
+    @Test
+    void trueStereo_matchesSumOfPairwiseConvolutions() {
+        Random random = new Random(51);
+        double[][] inputs = {TestSignals.random(5000, random), TestSignals.random(5000, random)};
+        double[][][] kernels = {
+                {TestSignals.random(400, random), TestSignals.random(300, random)},
+                {TestSignals.random(350, random), TestSignals.random(400, random)}
+        };
+
+        double[][] outputs = new MultichannelConvolver(kernels).with(inputs);
+
+        Convolution reference = new OverlapSaveAdapter();
+        for (int output = 0; output < 2; output++) {
+            double[] expected = new double[5000 + 400 - 1];
+            for (int input = 0; input < 2; input++) {
+                double[] path = reference.with(inputs[input], kernels[output][input]);
+                for (int i = 0; i < path.length; i++) {
+                    expected[i] += path[i];
+                }
+            }
+            assertThat(outputs[output]).usingElementComparator(doubleComparator()).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void stereoImpulseResponse_convolvesEachChannel() {
+        WavFileReader.MultiChannelWavFile impulseResponse =
+                new WavFileReader().loadFromClasspath("WoodruffLane.wav");
+        double[] left = impulseResponse.getChannel(0);
+        double[] right = impulseResponse.getChannel(1);
+        double[][][] kernels = {
+                {left, new double[left.length]},
+                {new double[right.length], right}
+        };
+        Random random = new Random(52);
+        WavFileReader.MultiChannelWavFile dry = new WavFileReader.MultiChannelWavFile(44100,
+                new double[][]{TestSignals.random(3000, random), TestSignals.random(3000, random)});
+
+        WavFileReader.MultiChannelWavFile wet = new MultichannelConvolver(kernels).with(dry);
+
+        Convolution reference = new OverlapSaveAdapter();
+        assertThat(wet.channelCount()).isEqualTo(2);
+        assertThat(wet.getChannel(0)).usingElementComparator(doubleComparator())
+                .containsExactly(reference.with(dry.getChannel(0), left));
+        assertThat(wet.getChannel(1)).usingElementComparator(doubleComparator())
+                .containsExactly(reference.with(dry.getChannel(1), right));
+    }
+
+    @Test
+    void monoToStereo_producesOneOutputPerKernelRow() {
+        Random random = new Random(53);
+        double[][][] kernels = {{TestSignals.random(64, random)}, {TestSignals.random(64, random)}};
+
+        double[][] outputs = new MultichannelConvolver(kernels).with(new double[][]{TestSignals.random(100, random)});
+
+        assertThat(outputs.length).isEqualTo(2);
+        assertThat(outputs[1]).hasSize(100 + 64 - 1);
+    }
+
+    @Test
+    void wrongInputCount_isRejected() {
+        MultichannelConvolver convolver = new MultichannelConvolver(new double[][][]{{{1}, {1}}});
+
+        assertThatThrownBy(() -> convolver.with(new double[][]{{1, 2}}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
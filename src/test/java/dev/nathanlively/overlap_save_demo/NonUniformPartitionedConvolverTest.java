@@ -0,0 +1,91 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class NonUniformPartitionedConvolverTest {
+
+    private static Comparator<Double> doubleComparator() {
+        return (a, b) -> Math.abs(a - b) < 1.0E-9 ? 0 : Double.compare(a, b);
+    }
+
+    @Test
+    void longKernel_matchesApacheReference() {
+        Random random = new Random(21);
+        double[] signal = TestSignals.random(3000, random);
+        double[] kernel = TestSignals.random(6000, random);
+
+        double[] expected = new ApacheAdapter().with(signal, kernel);
+        double[] actual = new NonUniformPartitionedAdapter(32, 512).with(signal, kernel);
+
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void segments_holdNoLeadingZeroPartitions() {
+        Random random = new Random(25);
+        double[] signal = TestSignals.random(2000, random);
+        double[] kernel = TestSignals.random(64 + 128 + 256, random);
+
+        NonUniformPartitionedConvolver convolver = new NonUniformPartitionedConvolver(kernel, 64, 8192);
+        double[] expected = new ApacheAdapter().with(signal, kernel);
+        double[] actual = new NonUniformPartitionedAdapter(64, 8192).with(signal, kernel);
+
+        assertThat(convolver.segmentCount()).isEqualTo(2);
+        assertThat(convolver.partitionCount()).isEqualTo(4);
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void impulse_appearsWithoutLatency() {
+        double[] kernel = TestSignals.random(1000, 22);
+        NonUniformPartitionedConvolver convolver = new NonUniformPartitionedConvolver(kernel, 16, 256);
+        double[] impulse = new double[kernel.length];
+        impulse[0] = 1;
+        double[] output = new double[impulse.length];
+
+        convolver.process(impulse, output);
+
+        assertThat(convolver.latency()).isEqualTo(0);
+        assertThat(output).containsExactly(kernel, within(1e-12));
+    }
+
+    @Test
+    void arbitraryChunks_matchSingleCall() {
+        Random random = new Random(23);
+        double[] signal = TestSignals.random(5000, random);
+        double[] kernel = TestSignals.random(2000, random);
+
+        NonUniformPartitionedConvolver whole = new NonUniformPartitionedConvolver(kernel, 32, 1024);
+        double[] expected = new double[signal.length];
+        whole.process(signal, expected);
+
+        NonUniformPartitionedConvolver chunked = new NonUniformPartitionedConvolver(kernel, 32, 1024);
+        double[] actual = signal.clone();
+        int position = 0;
+        while (position < signal.length) {
+            int chunk = Math.min(1 + random.nextInt(100), signal.length - position);
+            chunked.process(actual, position, chunk, actual);
+            position += chunk;
+        }
+
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void roomImpulseResponse_matchesOverlapSave() {
+        WavFileReader reader = new WavFileReader();
+        double[] impulseResponse = reader.loadFromClasspath("EchoBridge.wav").getChannel(0);
+        double[] signal = TestSignals.random(4096, 24);
+
+        double[] expected = new OverlapSaveAdapter().with(signal, impulseResponse);
+        double[] actual = new NonUniformPartitionedAdapter().with(signal, impulseResponse);
+
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+}
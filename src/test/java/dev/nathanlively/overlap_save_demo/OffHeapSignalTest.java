@@ -0,0 +1,96 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapSignalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void offHeapOverlapSave_matchesArrayPath() {
+        Random random = new Random(21);
+        double[] signal = TestSignals.random(50_000, random);
+        double[] kernel = TestSignals.random(700, random);
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+
+        try (OffHeapSignal input = OffHeapSignal.of(signal);
+             OffHeapSignal output = adapter.with(input, kernel)) {
+            assertThat(output.length()).isEqualTo(signal.length + kernel.length - 1L);
+            assertThat(output.toArray()).isEqualTo(adapter.with(signal, kernel));
+        }
+    }
+
+    @Test
+    void fileBackedOutput_persistsAndReopens() {
+        Random random = new Random(22);
+        double[] signal = TestSignals.random(10_000, random);
+        double[] kernel = TestSignals.random(100, random);
+        double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+        Path file = tempDir.resolve("render.f64");
+
+        try (OffHeapSignal input = OffHeapSignal.of(signal);
+             OffHeapSignal output = OffHeapSignal.createMapped(file, expected.length)) {
+            new OverlapSaveAdapter().with(input, kernel, output);
+        }
+
+        try (OffHeapSignal reopened = OffHeapSignal.openMapped(file)) {
+            assertThat(reopened.length()).isEqualTo((long) expected.length);
+            assertThat(reopened.toArray()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void readAndWrite_useLongPositions() {
+        try (OffHeapSignal signal = OffHeapSignal.allocate(100)) {
+            signal.write(90, new double[]{1, 2, 3}, 1, 2);
+            signal.set(0, -1);
+
+            double[] read = new double[4];
+            signal.read(89, read, 0, 4);
+
+            assertThat(read).containsExactly(0, 2, 3, 0);
+            assertThat(signal.get(0)).isEqualTo(-1.0);
+            assertThatThrownBy(() -> signal.read(98, read, 0, 4)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    void readChannel_matchesWavFileReader() throws IOException {
+        double[] expected = new WavFileReader().loadFromClasspath("EchoBridge.wav").getChannel(1);
+        Path path = new ClassPathResource("EchoBridge.wav").getFile().toPath();
+
+        try (MappedWavReader reader = MappedWavReader.open(path);
+             OffHeapSignal channel = reader.readChannel(1)) {
+            assertThat(channel.toArray()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void invalidInputs_areRejected() throws IOException {
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+        try (OffHeapSignal empty = OffHeapSignal.allocate(0);
+             OffHeapSignal signal = OffHeapSignal.allocate(10);
+             OffHeapSignal shortOutput = OffHeapSignal.allocate(11)) {
+            assertThatThrownBy(() -> adapter.with(empty, new double[]{1}))
+                    .isInstanceOf(NoDataException.class);
+            assertThatThrownBy(() -> adapter.with(signal, new double[]{1, 1, 1}, shortOutput))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> OffHeapSignal.allocate(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OffHeapSignal.openMapped(tempDir.resolve("missing.f64")))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(Files.exists(tempDir.resolve("missing.f64"))).isFalse();
+    }
+}
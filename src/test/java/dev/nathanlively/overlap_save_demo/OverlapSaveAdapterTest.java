@@ -0,0 +1,134 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OverlapSaveAdapterTest {
+
+    @Test
+    void digitalSilence_isSkippedWithoutChangingOutput() {
+        Random random = new Random(22);
+        double[] signal = takesWithGaps(random, 0.0);
+        double[] kernel = TestSignals.random(500, random);
+
+        OverlapSaveAdapter skipping = new OverlapSaveAdapter(0.0);
+        double[] actual = skipping.with(signal, kernel);
+
+        // Skipped blocks write +0.0 where the transforms may leave -0.0, so compare values rather than bits
+        assertThat(maxDifference(actual, new OverlapSaveAdapter().with(signal, kernel))).isEqualTo(0.0);
+        assertThat(skipping.skippedBlocks()).isGreaterThan(0);
+    }
+
+    @Test
+    void continuousSignal_skipsNothing() {
+        Random random = new Random(23);
+        double[] signal = TestSignals.random(40_000, random);
+        double[] kernel = TestSignals.random(300, random);
+
+        OverlapSaveAdapter skipping = new OverlapSaveAdapter(1e-6);
+
+        assertThat(skipping.with(signal, kernel)).isEqualTo(new OverlapSaveAdapter().with(signal, kernel));
+        assertThat(skipping.skippedBlocks()).isEqualTo(0L);
+    }
+
+    @Test
+    void nearSilence_staysWithinThresholdBound() {
+        Random random = new Random(24);
+        double threshold = 1e-6;
+        double[] signal = takesWithGaps(random, threshold / 2);
+        double[] kernel = TestSignals.random(500, random);
+
+        OverlapSaveAdapter skipping = new OverlapSaveAdapter(threshold);
+        double[] actual = skipping.with(signal, kernel);
+        double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+
+        double kernelSum = 0;
+        for (double tap : kernel) {
+            kernelSum += Math.abs(tap);
+        }
+        assertThat(skipping.skippedBlocks()).isGreaterThan(0);
+        assertThat(maxDifference(actual, expected)).isLessThanOrEqualTo(threshold * kernelSum);
+    }
+
+    @Test
+    void offHeapPath_skipsSilentBlocks() {
+        Random random = new Random(25);
+        double[] signal = takesWithGaps(random, 0.0);
+        double[] kernel = TestSignals.random(200, random);
+        OverlapSaveAdapter skipping = new OverlapSaveAdapter(0.0);
+
+        try (OffHeapSignal input = OffHeapSignal.of(signal);
+             OffHeapSignal output = skipping.with(input, kernel)) {
+            assertThat(maxDifference(output.toArray(), new OverlapSaveAdapter().with(signal, kernel))).isEqualTo(0.0);
+        }
+        assertThat(skipping.skippedBlocks()).isGreaterThan(0);
+    }
+
+    @Test
+    void batchOfShortClipsAndOneLongSignal_matchesConvolvingEachSignal() {
+        Random random = new Random(26);
+        double[] kernel = TestSignals.random(200, random);
+        List<double[]> signals = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            signals.add(TestSignals.random(300 + 17 * i, random));
+        }
+        signals.add(15, TestSignals.random(200_000, random));
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+
+        List<double[]> results = adapter.withAll(signals, kernel);
+
+        // Each signal gets the FFT size a single call would pick, so the results match bit for bit
+        assertThat(results).hasSize(signals.size());
+        for (int i = 0; i < signals.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(adapter.with(signals.get(i), kernel));
+        }
+    }
+
+    @Test
+    void batchOfGappedClips_skipsSilentBlocks() {
+        Random random = new Random(27);
+        double[] kernel = TestSignals.random(300, random);
+        List<double[]> signals = List.of(takesWithGaps(random, 0.0), takesWithGaps(random, 0.0),
+                TestSignals.random(5_000, random));
+        OverlapSaveAdapter skipping = new OverlapSaveAdapter(0.0);
+
+        List<double[]> results = skipping.withAll(signals, kernel);
+
+        for (int i = 0; i < signals.size(); i++) {
+            assertThat(maxDifference(results.get(i), new OverlapSaveAdapter().with(signals.get(i), kernel)))
+                    .isEqualTo(0.0);
+        }
+        assertThat(skipping.skippedBlocks()).isGreaterThan(0);
+    }
+
+    @Test
+    void invalidThreshold_isRejected() {
+        assertThatThrownBy(() -> new OverlapSaveAdapter(-1e-3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OverlapSaveAdapter(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Three takes of noise separated by long gaps at the given level
+    private double[] takesWithGaps(Random random, double gapLevel) {
+        double[] signal = new double[200_000];
+        for (int i = 0; i < signal.length; i++) {
+            boolean take = i < 30_000 || (i >= 90_000 && i < 110_000) || i >= 180_000;
+            signal[i] = take ? random.nextDouble() * 2 - 1 : gapLevel * (random.nextDouble() * 2 - 1);
+        }
+        return signal;
+    }
+
+    private double maxDifference(double[] actual, double[] expected) {
+        assertThat(actual.length).isEqualTo(expected.length);
+        double max = 0;
+        for (int i = 0; i < expected.length; i++) {
+            max = Math.max(max, Math.abs(actual[i] - expected[i]));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,57 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelOverlapSaveAdapterTest {
+
+    @Test
+    void parallelResult_isBitIdenticalToSerial() {
+        Random random = new Random(41);
+        double[] signal = TestSignals.random(200_000, random);
+        double[] kernel = TestSignals.random(1000, random);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+            double[] actual = new ParallelOverlapSaveAdapter(pool, 1).with(signal, kernel);
+
+            assertThat(actual).isEqualTo(expected);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void fewerBlocksThanThreshold_runsSerially() {
+        Random random = new Random(42);
+        double[] signal = TestSignals.random(500, random);
+        double[] kernel = TestSignals.random(20, random);
+
+        double[] expected = new OverlapSaveAdapter().with(signal, kernel);
+        double[] actual = new ParallelOverlapSaveAdapter(ForkJoinPool.commonPool(), 1000).with(signal, kernel);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void defaultAdapter_isBitIdenticalToSerial() {
+        Random random = new Random(43);
+        double[] signal = TestSignals.random(48_000, random);
+        double[] kernel = TestSignals.random(512, random);
+
+        assertThat(new ParallelOverlapSaveAdapter().with(signal, kernel))
+                .isEqualTo(new OverlapSaveAdapter().with(signal, kernel));
+    }
+
+    @Test
+    void nonPositiveThreshold_isRejected() {
+        assertThatThrownBy(() -> new ParallelOverlapSaveAdapter(ForkJoinPool.commonPool(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
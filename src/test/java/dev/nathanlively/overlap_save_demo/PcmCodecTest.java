@@ -0,0 +1,143 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PcmCodecTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void decode_matchesPerSampleConversion() {
+        Random random = new Random(42);
+        for (int bitDepth : new int[]{8, 16, 24, 32}) {
+            int channelCount = 3;
+            int frames = 1001;
+            byte[] bytes = new byte[5 + frames * channelCount * bitDepth / 8];
+            random.nextBytes(bytes);
+
+            double[][] actual = new double[channelCount][frames + 2];
+            PcmCodec.decode(bytes, 5, bitDepth, false, actual, 2, frames);
+
+            for (int c = 0; c < channelCount; c++) {
+                for (int frame = 0; frame < frames; frame++) {
+                    assertThat(actual[c][frame + 2])
+                            .as("%d-bit sample %d of channel %d", bitDepth, frame, c)
+                            .isEqualTo(referenceDecode(bytes, 5, frame, c, channelCount, bitDepth));
+                }
+            }
+        }
+    }
+
+    @Test
+    void encode_matchesPerSampleConversion() {
+        Random random = new Random(7);
+        for (int bitDepth : new int[]{8, 16, 24, 32}) {
+            double[][] channels = new double[2][777];
+            for (double[] channel : channels) {
+                for (int i = 0; i < channel.length; i++) {
+                    // Include out-of-range samples to exercise clamping
+                    channel[i] = random.nextDouble() * 2.4 - 1.2;
+                }
+            }
+
+            byte[] actual = new byte[channels[0].length * channels.length * bitDepth / 8];
+            PcmCodec.encode(channels, 0, bitDepth, false, actual, 0, channels[0].length);
+
+            assertThat(actual).as("%d-bit", bitDepth).isEqualTo(referenceEncode(channels, bitDepth));
+        }
+    }
+
+    @Test
+    void float32_roundTripsFloatValues() {
+        double[][] channels = {{0.5f, -0.1f, 1.5f, -3.25f}, {0.0, 1e-7f, -1.0, 0.333f}};
+        byte[] bytes = new byte[4 * 2 * 4];
+
+        PcmCodec.encode(channels, 0, 32, true, bytes, 0, 4);
+        double[][] decoded = new double[2][4];
+        PcmCodec.decode(bytes, 0, 32, true, decoded, 0, 4);
+
+        assertThat(decoded[0]).isEqualTo(channels[0]);
+        assertThat(decoded[1]).isEqualTo(channels[1]);
+    }
+
+    @Test
+    void wavFileWriterOutput_readsBackThroughWavFileReader() {
+        double[][] channels = {{0.25, -0.5, 1.0, -1.0}, {0.0, 0.125, -0.75, 0.999}};
+
+        Path path = tempDir.resolve("codec.wav");
+        new WavFileWriter().saveToFile(44100, channels, path);
+        WavFileReader.MultiChannelWavFile read = new WavFileReader().loadFromFile(path.toString());
+
+        for (int c = 0; c < channels.length; c++) {
+            for (int i = 0; i < channels[c].length; i++) {
+                assertThat(read.getChannel(c)[i]).isEqualTo((int) (channels[c][i] * 32767) / 32767.0);
+            }
+        }
+    }
+
+    @Test
+    void unsupportedBitDepth_isRejected() {
+        assertThatThrownBy(() -> PcmCodec.decode(new byte[12], 0, 12, false, new double[1][1], 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PcmCodec.encode(new double[1][1], 0, 16, true, new byte[8], 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // The byte-at-a-time conversion WavFileReader used before PcmCodec, with 8-bit read as unsigned
+    private static double referenceDecode(byte[] buffer, int start, int frame, int channel, int channelCount,
+                                          int bitDepth) {
+        int bytesPerSample = bitDepth / 8;
+        int offset = start + (frame * channelCount + channel) * bytesPerSample;
+        int value;
+        if (bytesPerSample == 1) {
+            value = (buffer[offset] & 0xFF) - 128;
+        } else if (bytesPerSample == 2) {
+            value = (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8);
+            if ((value & 0x8000) != 0) {
+                value |= 0xFFFF0000;
+            }
+        } else if (bytesPerSample == 3) {
+            value = (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8)
+                    | ((buffer[offset + 2] & 0xFF) << 16);
+            if ((value & 0x800000) != 0) {
+                value |= 0xFF000000;
+            }
+        } else {
+            value = (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8)
+                    | ((buffer[offset + 2] & 0xFF) << 16) | (buffer[offset + 3] << 24);
+        }
+        return value / (Math.pow(2, bitDepth - 1) - 1);
+    }
+
+    // The byte-at-a-time conversion WavFileWriter used before PcmCodec, with 8-bit written as unsigned
+    private static byte[] referenceEncode(double[][] channels, int bitDepth) {
+        int sampleCount = channels[0].length;
+        int bytesPerSample = bitDepth / 8;
+        byte[] buffer = new byte[sampleCount * channels.length * bytesPerSample];
+        double scaleFactor = Math.pow(2, bitDepth - 1) - 1;
+        int bufferIndex = 0;
+
+        for (int i = 0; i < sampleCount; i++) {
+            for (double[] channel : channels) {
+                int intValue = (int) (channel[i] * scaleFactor);
+                int maxValue = (int) scaleFactor;
+                intValue = Math.max(-maxValue - 1, Math.min(maxValue, intValue));
+                if (bytesPerSample == 1) {
+                    intValue += 128;
+                }
+                for (int byteIndex = 0; byteIndex < bytesPerSample; byteIndex++) {
+                    buffer[bufferIndex++] = (byte) ((intValue >>> (8 * byteIndex)) & 0xFF);
+                }
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,177 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.apache.commons.math4.legacy.exception.NoDataException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PreparedKernelTest {
+
+    @Test
+    void preparedKernel_matchesOverlapSaveAdapterForSameFftSize() {
+        Random random = new Random(31);
+        double[] signal = TestSignals.random(10_000, random);
+        double[] kernel = TestSignals.random(300, random);
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+        int fftSize = adapter.calculateOptimalFftSize(signal.length, kernel.length);
+
+        PreparedKernel prepared = Convolution.prepare(kernel, fftSize);
+
+        assertThat(prepared.with(signal)).isEqualTo(adapter.with(signal, kernel));
+    }
+
+    @Test
+    void preparedKernel_isSafeToShareBetweenThreads() {
+        Random random = new Random(32);
+        double[] kernel = TestSignals.random(500, random);
+        List<double[]> signals = IntStream.range(0, 32).mapToObj(i -> TestSignals.random(2000 + i, random)).toList();
+        PreparedKernel prepared = Convolution.prepare(kernel);
+
+        List<double[]> expected = signals.stream().map(prepared::with).toList();
+        List<double[]> actual = signals.parallelStream().map(prepared::with).toList();
+
+        for (int i = 0; i < signals.size(); i++) {
+            assertThat(actual.get(i)).isEqualTo(expected.get(i));
+        }
+    }
+
+    @Test
+    void repeatedKernel_skipsTransform() {
+        KernelSpectrumCache cache = new KernelSpectrumCache(1024 * 1024);
+        double[] kernel = TestSignals.random(100, 33);
+
+        double[] first = cache.spectrum(kernel, 256);
+        double[] second = cache.spectrum(kernel.clone(), 256);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(1L);
+        assertThat(cache.missCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void differentFftSize_isCachedSeparately() {
+        KernelSpectrumCache cache = new KernelSpectrumCache(1024 * 1024);
+        double[] kernel = TestSignals.random(100, 34);
+
+        cache.spectrum(kernel, 256);
+        cache.spectrum(kernel, 512);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void cache_evictsLeastRecentlyUsedBeyondMemoryBudget() {
+        // Each entry holds a 64-sample kernel plus a 258-double spectrum
+        long entryBytes = Double.BYTES * (64 + 258);
+        KernelSpectrumCache cache = new KernelSpectrumCache(2 * entryBytes);
+        Random random = new Random(35);
+        double[] first = TestSignals.random(64, random);
+        double[] second = TestSignals.random(64, random);
+        double[] third = TestSignals.random(64, random);
+
+        cache.spectrum(first, 256);
+        cache.spectrum(second, 256);
+        cache.spectrum(first, 256);
+        cache.spectrum(third, 256);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.currentBytes()).isLessThanOrEqualTo(cache.maxBytes());
+        cache.spectrum(first, 256);
+        assertThat(cache.hitCount()).isEqualTo(2L);
+        cache.spectrum(second, 256);
+        assertThat(cache.missCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void oversizedSpectrum_isNotCachedAndKeepsExistingEntries() {
+        long entryBytes = Double.BYTES * (64 + 258);
+        KernelSpectrumCache cache = new KernelSpectrumCache(4 * entryBytes);
+        Random random = new Random(37);
+        double[] first = TestSignals.random(64, random);
+        double[] second = TestSignals.random(64, random);
+        cache.spectrum(first, 256);
+        cache.spectrum(second, 256);
+
+        double[] oversized = cache.spectrum(TestSignals.random(64, random), 4096);
+
+        assertThat(oversized.length).isEqualTo(4098);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.currentBytes()).isEqualTo(2 * entryBytes);
+        cache.spectrum(first, 256);
+        cache.spectrum(second, 256);
+        assertThat(cache.hitCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void withAll_matchesConvolvingEachSignalInOrder() {
+        Random random = new Random(36);
+        double[] kernel = TestSignals.random(300, random);
+        // Lengths on both sides of the block size, including signals shorter than the kernel
+        List<double[]> signals = IntStream.range(0, 40)
+                .mapToObj(i -> TestSignals.random(1 + i * 97, random)).toList();
+        PreparedKernel prepared = Convolution.prepare(kernel);
+
+        List<double[]> results = prepared.withAll(signals);
+
+        assertThat(results).hasSize(signals.size());
+        for (int i = 0; i < signals.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(prepared.with(signals.get(i)));
+        }
+    }
+
+    @Test
+    void overlapSaveWithAll_matchesWithPerSignal() {
+        Random random = new Random(37);
+        double[] kernel = TestSignals.random(128, random);
+        List<double[]> signals = IntStream.range(0, 12)
+                .mapToObj(i -> TestSignals.random(500 + i * 311, random)).toList();
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+        TimeDomainAdapter reference = new TimeDomainAdapter();
+
+        List<double[]> batch = adapter.withAll(signals, kernel);
+        List<double[]> sequential = reference.withAll(signals, kernel);
+
+        for (int i = 0; i < signals.size(); i++) {
+            double[] expected = sequential.get(i);
+            assertThat(batch.get(i)).hasSize(expected.length);
+            for (int j = 0; j < expected.length; j++) {
+                assertThat(batch.get(i)[j]).isCloseTo(expected[j], within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void withAll_rejectsEmptySignal() {
+        List<double[]> signals = List.of(new double[10], new double[0]);
+
+        assertThatThrownBy(() -> Convolution.prepare(new double[]{1.0}).withAll(signals))
+                .isInstanceOf(NoDataException.class);
+    }
+
+    @Test
+    void fftSizeSmallerThanKernel_isRejected() {
+        assertThatThrownBy(() -> Convolution.prepare(new double[100], 64))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void withOutput_matchesAllocatingCall() {
+        Random random = new Random(27);
+        double[] signal = TestSignals.random(5_000, random);
+        PreparedKernel prepared = Convolution.prepare(TestSignals.random(300, random));
+        double[] expected = prepared.with(signal);
+        double[] output = new double[expected.length + 3];
+
+        prepared.with(signal, output, 3);
+
+        assertThat(Arrays.copyOfRange(output, 3, output.length)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class RealFftEngineTest {
+    private static final double precision = 1e-9;
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 8, 16, 1024})
+    void forward_matchesNonNegativeBinsOfComplexTransform(int size) {
+        double[] signal = TestSignals.random(size, size);
+        double[] real = signal.clone();
+        double[] imaginary = new double[size];
+        FftEngine.forSize(size).forward(real, imaginary);
+
+        RealFftEngine fft = RealFftEngine.forSize(size);
+        double[] packed = Arrays.copyOf(signal, fft.bufferLength());
+        fft.forward(packed);
+
+        for (int k = 0; k < fft.binCount(); k++) {
+            assertThat(packed[2 * k]).isCloseTo(real[k], within(precision));
+            assertThat(packed[2 * k + 1]).isCloseTo(imaginary[k], within(precision));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 32, 4096})
+    void inverse_restoresOriginalSignal(int size) {
+        double[] signal = TestSignals.random(size, size + 1);
+        RealFftEngine fft = RealFftEngine.forSize(size);
+
+        double[] packed = Arrays.copyOf(signal, fft.bufferLength());
+        fft.forward(packed);
+        fft.inverse(packed);
+
+        assertThat(Arrays.copyOf(packed, size)).containsExactly(signal, within(precision));
+    }
+
+    @Test
+    void shortBuffer_isRejected() {
+        RealFftEngine fft = RealFftEngine.forSize(8);
+
+        assertThatThrownBy(() -> fft.forward(new double[8])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class RealTimeHarnessTest {
+
+    @Test
+    void histogram_reportsPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100_000L);
+        assertThat(histogram.max()).isEqualTo(100_000_000L);
+        assertThat((double) histogram.valueAtPercentile(50)).isCloseTo(50_000_000, within(50_000_000 / 64.0));
+        assertThat((double) histogram.valueAtPercentile(99)).isCloseTo(99_000_000, within(99_000_000 / 64.0));
+        assertThat((double) histogram.valueAtPercentile(99.9)).isCloseTo(99_900_000, within(99_900_000 / 64.0));
+        assertThat(histogram.valueAtPercentile(100)).isEqualTo(100_000_000L);
+    }
+
+    @Test
+    void histogram_bucketsCoverEveryValue() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            assertThat(index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value).isTrue();
+        }
+    }
+
+    @Test
+    void slowBlock_delaysTheBlocksQueuedBehindIt() {
+        // 100 samples at 100 kHz gives a 1 ms period; block 3 stalls for 2.5 ms
+        long[] now = {0};
+        long[] costs = {200_000, 200_000, 200_000, 2_500_000, 200_000, 200_000, 200_000, 200_000};
+        int[] block = {0};
+        RealTimeHarness harness = new RealTimeHarness((input, offset, length, output) -> now[0] += costs[block[0]++],
+                100, 100_000, () -> now[0]);
+
+        RealTimeHarness.Report report = harness.run(new double[]{1.0}, 0, costs.length);
+
+        assertThat(report.periodNanos()).isEqualTo(1_000_000L);
+        // Block 3 finishes at 5.5 ms, block 4 (available at 4 ms) at 5.7 ms, block 5 on time at 5.9 ms
+        assertThat(report.deadlineMisses()).isEqualTo(2L);
+        assertThat(report.maxNanos()).isEqualTo(2_500_000L);
+        assertThat((double) report.p50Nanos()).isCloseTo(200_000, within(200_000 / 64.0));
+    }
+
+    @Test
+    void streamingConvolver_runsAtAudioRate() {
+        double[] kernel = new double[2048];
+        kernel[0] = 1.0;
+        StreamingConvolver convolver = new StreamingConvolver(kernel);
+        RealTimeHarness harness = new RealTimeHarness(convolver::process, 128, 48_000);
+
+        RealTimeHarness.Report report = harness.run(new double[48_000], 500, 2000);
+
+        assertThat(report.blocks()).isEqualTo(2000L);
+        assertThat(report.periodNanos()).isEqualTo(2_666_667L);
+        assertThat(report.p50Nanos()).isLessThanOrEqualTo(report.p99Nanos());
+        assertThat(report.p99Nanos()).isLessThanOrEqualTo(report.maxNanos());
+        assertThat(harness.histogram().count()).isEqualTo(2000L);
+        assertThat(report.summary()).contains("2.667 ms");
+    }
+
+    @Test
+    void invalidBlockCount_isRejected() {
+        RealTimeHarness harness = new RealTimeHarness((input, offset, length, output) -> { }, 64, 48_000);
+
+        assertThatThrownBy(() -> harness.run(new double[64], 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
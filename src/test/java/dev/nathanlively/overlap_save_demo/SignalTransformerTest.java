@@ -4,6 +4,7 @@ import org.apache.commons.numbers.complex.Complex;
 import org.junit.jupiter.api.Test;
 
 import java.util.Comparator;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -46,4 +47,65 @@ class SignalTransformerTest {
 
         assertThat(paddedSignal).containsExactly(0, 0, 1, 2, 0, 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void interleavedMultiply_matchesScalarFormulaBitForBit() {
+        Random random = new Random(3);
+        double[] transform1 = TestSignals.random(2 * 67, random);
+        double[] transform2 = TestSignals.random(2 * 67, random);
+        double[] accumulator = TestSignals.random(2 * 67, random);
+
+        double[] expectedProduct = new double[transform1.length];
+        double[] expectedAccumulator = accumulator.clone();
+        for (int i = 0; i < transform1.length; i += 2) {
+            expectedProduct[i] = transform1[i] * transform2[i] - transform1[i + 1] * transform2[i + 1];
+            expectedProduct[i + 1] = transform1[i] * transform2[i + 1] + transform1[i + 1] * transform2[i];
+            expectedAccumulator[i] += expectedProduct[i];
+            expectedAccumulator[i + 1] += expectedProduct[i + 1];
+        }
+
+        double[] product = new double[transform1.length];
+        SignalTransformer.multiplyInterleaved(transform1, transform2, product);
+        SignalTransformer.multiplyAccumulateInterleaved(transform1, transform2, accumulator);
+
+        assertThat(product).isEqualTo(expectedProduct);
+        assertThat(accumulator).isEqualTo(expectedAccumulator);
+    }
+
+    @Test
+    void simdSplitKernels_matchScalarFormulaBitForBit() {
+        Random random = new Random(4);
+        int length = 8 * SimdKernels.SPECIES.length();
+        double[] real1 = TestSignals.random(length, random);
+        double[] imaginary1 = TestSignals.random(length, random);
+        double[] real2 = TestSignals.random(length, random);
+        double[] imaginary2 = TestSignals.random(length, random);
+        double[] accumulatorReal = TestSignals.random(length, random);
+        double[] accumulatorImaginary = TestSignals.random(length, random);
+
+        double[] expectedReal = new double[length];
+        double[] expectedImaginary = new double[length];
+        double[] expectedAccumulatorReal = accumulatorReal.clone();
+        double[] expectedAccumulatorImaginary = accumulatorImaginary.clone();
+        for (int i = 0; i < length; i++) {
+            expectedReal[i] = real1[i] * real2[i] - imaginary1[i] * imaginary2[i];
+            expectedImaginary[i] = real1[i] * imaginary2[i] + imaginary1[i] * real2[i];
+            expectedAccumulatorReal[i] += expectedReal[i];
+            expectedAccumulatorImaginary[i] += expectedImaginary[i];
+        }
+
+        double[] resultReal = new double[length];
+        double[] resultImaginary = new double[length];
+        int multiplied = SimdKernels.multiply(real1, imaginary1, real2, imaginary2,
+                resultReal, resultImaginary, length);
+        int accumulated = SimdKernels.multiplyAccumulate(real1, imaginary1, real2, imaginary2,
+                accumulatorReal, accumulatorImaginary, length);
+
+        assertThat(multiplied).isEqualTo(length);
+        assertThat(accumulated).isEqualTo(length);
+        assertThat(resultReal).isEqualTo(expectedReal);
+        assertThat(resultImaginary).isEqualTo(expectedImaginary);
+        assertThat(accumulatorReal).isEqualTo(expectedAccumulatorReal);
+        assertThat(accumulatorImaginary).isEqualTo(expectedAccumulatorImaginary);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingConvolverTest {
+
+    @Test
+    void arbitraryChunks_matchOverlapSaveAdapterAfterLatency() {
+        Random random = new Random(42);
+        double[] signal = generateTestSignal(5000, random);
+        double[] kernel = generateTestSignal(100, random);
+        OverlapSaveAdapter adapter = new OverlapSaveAdapter();
+        double[] expected = adapter.with(signal, kernel);
+
+        StreamingConvolver convolver = new StreamingConvolver(kernel,
+                adapter.calculateOptimalFftSize(signal.length, kernel.length));
+        double[] actual = streamInRandomChunks(convolver, signal, expected.length, random);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void inPlaceProcessing_matchesSeparateBuffers() {
+        Random random = new Random(7);
+        double[] signal = generateTestSignal(1000, random);
+        double[] kernel = {0.25, 0.5, 0.25};
+
+        StreamingConvolver separate = new StreamingConvolver(kernel);
+        double[] expected = new double[signal.length];
+        separate.process(signal, expected);
+
+        StreamingConvolver inPlace = new StreamingConvolver(kernel);
+        double[] buffer = signal.clone();
+        inPlace.process(buffer, buffer);
+
+        assertThat(buffer).isEqualTo(expected);
+    }
+
+    @Test
+    void output_isDelayedByLatency() {
+        StreamingConvolver convolver = new StreamingConvolver(new double[]{1});
+        double[] impulse = new double[convolver.latency() + 1];
+        impulse[0] = 1;
+        double[] output = new double[impulse.length];
+
+        convolver.process(impulse, output);
+
+        assertThat(Arrays.copyOf(output, convolver.latency())).containsOnly(0.0);
+        assertThat(output[convolver.latency()]).isEqualTo(1.0);
+    }
+
+    @Test
+    void reset_discardsHistory() {
+        Random random = new Random(3);
+        double[] signal = generateTestSignal(300, random);
+        double[] kernel = generateTestSignal(20, random);
+        StreamingConvolver convolver = new StreamingConvolver(kernel);
+
+        double[] first = new double[signal.length];
+        convolver.process(signal, first);
+        convolver.reset();
+        double[] second = new double[signal.length];
+        convolver.process(signal, second);
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void steadyStateProcessing_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StreamingConvolver convolver = new StreamingConvolver(generateTestSignal(200, new Random(5)));
+        double[] buffer = generateTestSignal(4096, new Random(6));
+
+        // Warm up so class loading and JIT compilation are out of the way; Vector API kernels only stop
+        // allocating once C2 has intrinsified them
+        for (int i = 0; i < 2000; i++) {
+            convolver.process(buffer, buffer);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 20; i++) {
+            convolver.process(buffer, buffer);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated).isLessThan(1024);
+    }
+
+    @Test
+    void fftSizeSmallerThanKernel_isRejected() {
+        assertThatThrownBy(() -> new StreamingConvolver(new double[100], 64))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private double[] streamInRandomChunks(StreamingConvolver convolver, double[] signal, int resultLength,
+                                          Random random) {
+        int totalLength = resultLength + convolver.latency();
+        double[] input = Arrays.copyOf(signal, totalLength);
+        double[] output = new double[totalLength];
+
+        int position = 0;
+        while (position < totalLength) {
+            int chunk = Math.min(1 + random.nextInt(300), totalLength - position);
+            convolver.process(input, position, chunk, output);
+            position += chunk;
+        }
+
+        return Arrays.copyOfRange(output, convolver.latency(), totalLength);
+    }
+
+    private double[] generateTestSignal(int length, Random random) {
+        double[] signal = new double[length];
+        for (int i = 0; i < length; i++) {
+            signal[i] = Math.sin(2.0 * Math.PI * i / 64.0) + 0.1 * random.nextDouble();
+        }
+        return signal;
+    }
+}
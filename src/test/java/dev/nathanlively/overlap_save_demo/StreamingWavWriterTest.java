@@ -0,0 +1,113 @@
+package dev.nathanlively.overlap_save_demo;
+
+import dev.nathanlively.overlap_save_demo.StreamingWavWriter.SampleFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class StreamingWavWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pcm16_inBlocks_matchesWavFileWriter() {
+        WavFileReader reader = new WavFileReader();
+        WavFileReader.MultiChannelWavFile source = reader.loadFromClasspath("LakeMerrittBART.wav");
+        Path expectedPath = tempDir.resolve("expected.wav");
+        Path actualPath = tempDir.resolve("actual.wav");
+        new WavFileWriter().saveToFile(source, expectedPath);
+
+        try (StreamingWavWriter writer = StreamingWavWriter.create(actualPath, source.sampleRate(),
+                source.channelCount(), SampleFormat.PCM_16)) {
+            for (int offset = 0; offset < source.length(); offset += 3000) {
+                writer.write(source.channels(), offset, Math.min(3000, source.length() - offset));
+            }
+        }
+
+        WavFileReader.MultiChannelWavFile expected = reader.loadFromFile(expectedPath.toString());
+        WavFileReader.MultiChannelWavFile actual = reader.loadFromFile(actualPath.toString());
+        assertThat(actual.sampleRate()).isEqualTo(expected.sampleRate());
+        for (int c = 0; c < expected.channelCount(); c++) {
+            assertThat(actual.getChannel(c)).isEqualTo(expected.getChannel(c));
+        }
+    }
+
+    @Test
+    void pcm24_roundTripsWithinOneStep() {
+        double[][] channels = {{0.5, -0.25, 1.0, -1.0, 0.0}};
+        Path path = tempDir.resolve("pcm24.wav");
+
+        try (StreamingWavWriter writer = StreamingWavWriter.create(path, 48000, 1, SampleFormat.PCM_24)) {
+            writer.write(channels);
+        }
+
+        try (MappedWavReader reader = MappedWavReader.open(path)) {
+            assertThat(reader.bitDepth()).isEqualTo(24);
+            double[] samples = reader.window(0, 5)[0];
+            for (int i = 0; i < samples.length; i++) {
+                assertThat(samples[i]).isCloseTo(channels[0][i], within(1.0 / 8388607));
+            }
+        }
+        // 15 bytes of samples are padded to an even chunk length
+        assertThat(path.toFile().length() % 2).isEqualTo(0L);
+    }
+
+    @Test
+    void float32_roundTripsExactly() {
+        double[][] channels = {{0.5, -0.25, 1.5}, {0.125, -2.0, 0.0}};
+        Path path = tempDir.resolve("float.wav");
+
+        try (StreamingWavWriter writer = StreamingWavWriter.create(path, 96000, 2, SampleFormat.FLOAT_32)) {
+            writer.write(channels);
+        }
+
+        try (MappedWavReader reader = MappedWavReader.open(path)) {
+            assertThat(reader.floatingPoint()).isTrue();
+            assertThat(reader.sampleRate()).isEqualTo(96000L);
+            double[][] samples = reader.window(0, 3);
+            assertThat(samples[0]).isEqualTo(channels[0]);
+            assertThat(samples[1]).isEqualTo(channels[1]);
+        }
+    }
+
+    @Test
+    void sizeBeyondRiffLimit_isWrittenAsRf64() throws IOException {
+        double[][] channels = {new double[1000]};
+        Arrays.fill(channels[0], 0.5);
+        Path path = tempDir.resolve("rf64.wav");
+
+        try (StreamingWavWriter writer = StreamingWavWriter.create(path, 44100, 1, SampleFormat.PCM_16, 1024)) {
+            writer.write(channels);
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(new String(header.array(), 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RF64");
+        assertThat(new String(header.array(), 12, 4, StandardCharsets.US_ASCII)).isEqualTo("ds64");
+        assertThat(header.getLong(28)).isEqualTo(2000L);
+        try (MappedWavReader reader = MappedWavReader.open(path)) {
+            assertThat(reader.frameCount()).isEqualTo(1000L);
+            assertThat(reader.window(999, 1)[0][0]).isCloseTo(0.5, within(1.0 / 32767));
+        }
+    }
+
+    @Test
+    void wrongChannelCount_isRejected() {
+        try (StreamingWavWriter writer = StreamingWavWriter.create(tempDir.resolve("mono.wav"), 44100, 1,
+                SampleFormat.PCM_16)) {
+            assertThatThrownBy(() -> writer.write(new double[2][10]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dev.nathanlively.overlap_save_demo;
+
+import java.util.Random;
+
+/**
+ * Uniform random test signals in [-1, 1).
+ */
+final class TestSignals {
+
+    private TestSignals() {
+    }
+
+    static double[] random(int length, long seed) {
+        return random(length, new Random(seed));
+    }
+
+    static double[] random(int length, Random random) {
+        double[] signal = new double[length];
+        for (int i = 0; i < length; i++) {
+            signal[i] = random.nextDouble() * 2 - 1;
+        }
+        return signal;
+    }
+
+    static float[] randomFloats(int length, long seed) {
+        Random random = new Random(seed);
+        float[] signal = new float[length];
+        for (int i = 0; i < length; i++) {
+            signal[i] = random.nextFloat() * 2 - 1;
+        }
+        return signal;
+    }
+}
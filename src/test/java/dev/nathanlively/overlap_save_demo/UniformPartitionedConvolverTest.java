@@ -0,0 +1,127 @@
+package dev.nathanlively.overlap_save_demo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class UniformPartitionedConvolverTest {
+
+    private static Comparator<Double> doubleComparator() {
+        return (a, b) -> Math.abs(a - b) < 1.0E-9 ? 0 : Double.compare(a, b);
+    }
+
+    @Test
+    void longKernel_matchesApacheReference() {
+        Random random = new Random(11);
+        double[] signal = TestSignals.random(3000, random);
+        double[] kernel = TestSignals.random(5000, random);
+
+        double[] expected = new ApacheAdapter().with(signal, kernel);
+        double[] actual = new UniformPartitionedAdapter(64).with(signal, kernel);
+
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void arbitraryChunks_matchSingleCall() {
+        Random random = new Random(12);
+        double[] signal = TestSignals.random(4000, random);
+        double[] kernel = TestSignals.random(700, random);
+
+        UniformPartitionedConvolver whole = new UniformPartitionedConvolver(kernel, 128);
+        double[] expected = new double[signal.length];
+        whole.process(signal, expected);
+
+        UniformPartitionedConvolver chunked = new UniformPartitionedConvolver(kernel, 128);
+        double[] actual = new double[signal.length];
+        int position = 0;
+        while (position < signal.length) {
+            int chunk = Math.min(1 + random.nextInt(200), signal.length - position);
+            chunked.process(signal, position, chunk, actual);
+            position += chunk;
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void roomImpulseResponse_matchesOverlapSave() {
+        WavFileReader reader = new WavFileReader();
+        double[] impulseResponse = reader.loadFromClasspath("EchoBridge.wav").getChannel(0);
+        double[] signal = TestSignals.random(4096, 13);
+
+        UniformPartitionedConvolver convolver = new UniformPartitionedConvolver(impulseResponse, 512);
+        double[] expected = new OverlapSaveAdapter().with(signal, impulseResponse);
+        double[] actual = new UniformPartitionedAdapter(512).with(signal, impulseResponse);
+
+        assertThat(convolver.latency()).isEqualTo(512);
+        assertThat(convolver.partitionCount()).isEqualTo((impulseResponse.length + 511) / 512);
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void output_isDelayedByOneBlock() {
+        UniformPartitionedConvolver convolver = new UniformPartitionedConvolver(new double[]{1, 0.5}, 32);
+        double[] impulse = new double[40];
+        impulse[0] = 1;
+        double[] output = new double[impulse.length];
+
+        convolver.process(impulse, output);
+
+        assertThat(Arrays.copyOf(output, 32)).containsOnly(0.0);
+        assertThat(output[32]).isCloseTo(1.0, within(1e-12));
+        assertThat(output[33]).isCloseTo(0.5, within(1e-12));
+    }
+
+    @Test
+    void delay_matchesZeroPaddedKernelWithFewerPartitions() {
+        Random random = new Random(15);
+        double[] signal = TestSignals.random(3000, random);
+        double[] kernel = TestSignals.random(300, random);
+        int delay = 2 * 64 + 37;
+        double[] paddedKernel = new double[delay + kernel.length];
+        System.arraycopy(kernel, 0, paddedKernel, delay, kernel.length);
+
+        UniformPartitionedConvolver padded = new UniformPartitionedConvolver(paddedKernel, 64);
+        double[] expected = new double[signal.length];
+        padded.process(signal, expected);
+
+        UniformPartitionedConvolver delayed = new UniformPartitionedConvolver(kernel, 64, delay);
+        double[] actual = new double[signal.length];
+        int position = 0;
+        while (position < signal.length) {
+            int chunk = Math.min(1 + random.nextInt(100), signal.length - position);
+            delayed.process(signal, position, chunk, actual);
+            position += chunk;
+        }
+
+        assertThat(delayed.latency()).isEqualTo(64 + delay);
+        assertThat(delayed.partitionCount()).isEqualTo(5);
+        assertThat(padded.partitionCount()).isEqualTo(8);
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void hardwareBufferBlockSize_matchesApacheReference() {
+        Random random = new Random(14);
+        double[] signal = TestSignals.random(5000, random);
+        double[] kernel = TestSignals.random(2000, random);
+
+        double[] expected = new ApacheAdapter().with(signal, kernel);
+        double[] actual = new UniformPartitionedAdapter(480).with(signal, kernel);
+
+        assertThat(actual).usingElementComparator(doubleComparator()).containsExactly(expected);
+    }
+
+    @Test
+    void blockSizeWithLargePrimeFactor_isRejected() {
+        assertThatThrownBy(() -> new UniformPartitionedConvolver(new double[10], 98))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -134,6 +134,22 @@ class VectorApiPerformanceTest {
         }
     }
 
+    @Test
+    void registerBlockedEngine_handlesEveryTailLength() {
+        VectorApiAdapter vectorAdapter = new VectorApiAdapter();
+        TimeDomainAdapter timeAdapter = new TimeDomainAdapter();
+        int blockWidth = 4 * VectorApiAdapter.SPECIES.length();
+
+        // Result lengths on both sides of the unrolled, single-vector and scalar loop boundaries
+        for (int signalLength = 1; signalLength <= 3 * blockWidth; signalLength++) {
+            double[] signal = generateTestSignal(signalLength);
+            double[] kernel = generateTestKernel(1 + signalLength % 13);
+
+            assertThat(vectorAdapter.with(signal, kernel)).usingElementComparator(doubleComparator())
+                    .containsExactly(timeAdapter.with(signal, kernel));
+        }
+    }
+
     private double[] generateTestSignal(int length) {
         double[] signal = new double[length];
         for (int i = 0; i < length; i++) {